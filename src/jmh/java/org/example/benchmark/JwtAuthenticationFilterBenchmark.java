@@ -0,0 +1,55 @@
+package org.example.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.config.JwtAuthenticationFilter;
+import org.example.model.Role;
+import org.example.model.User;
+import org.example.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full authentication path of a request carrying a bearer token: JWT verification, principal lookup
+ * and security context population.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = new JwtService(JwtBenchmark.SECRET, 86400000);
+        User user = User.builder().id(1L).username("benchmark").password("pw").role(Role.USER).build();
+        // Plain stub rather than a Mockito mock, so that mocking overhead stays out of the measurement
+        UserDetailsService userDetailsService = username -> user;
+
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, new SimpleMeterRegistry());
+        authorizationHeader = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Authentication authenticate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/spots");
+        request.addHeader("Authorization", authorizationHeader);
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordEncoderBenchmark {
+
+    // Cost used by ApplicationConfig#passwordEncoder (BCryptPasswordEncoder default)
+    @Param({"10"})
+    private int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode("SecurePassword123");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("SecurePassword123");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("SecurePassword123", hash);
+    }
+}
@@ -0,0 +1,175 @@
+package org.example.benchmark;
+
+import org.example.Main;
+import org.example.dto.SpotRequest;
+import org.example.service.SpotService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test of spot creation with and without {@code spot.group-commit.enabled}.
+ * <p>
+ * The application is started twice in this JVM (embedded H2), and {@code concurrency} virtual threads each call
+ * {@link SpotService#createSpot} back to back for {@code duration}. {@code commitLatencyMs} delays every commit
+ * while it holds its connection, to stand in for the fsync of a durable database.
+ * <pre>
+ * mvn -Pbenchmark -DskipTests test-compile exec:exec@create-load-test \
+ *     -Dload.args="concurrency=200 duration=15s commitLatencyMs=5"
+ * </pre>
+ */
+public class SpotCreateLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        // devtools would restart this main method in its own class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, String> options = new HashMap<>(Map.of(
+                "concurrency", "200",
+                "duration", "15s",
+                "warmup", "5s",
+                "commitLatencyMs", "5",
+                "poolSize", "10",
+                "maxBatch", "50",
+                "maxDelay", "2ms"));
+        Arrays.stream(args).map(arg -> arg.split("=", 2)).forEach(kv -> options.put(kv[0], kv[1]));
+
+        List<String> lines = new ArrayList<>();
+        for (boolean groupCommit : new boolean[]{false, true}) {
+            lines.add((groupCommit ? "group commit " : "one per tx   ") + run(groupCommit, options));
+        }
+        System.out.println();
+        System.out.println("Create load test " + options);
+        lines.forEach(System.out::println);
+    }
+
+    private static Result run(boolean groupCommit, Map<String, String> options) throws Exception {
+        SpringApplication application = new SpringApplication(Main.class);
+        application.addInitializers(context -> context.getBeanFactory()
+                .addBeanPostProcessor(new SlowCommits(Long.parseLong(options.get("commitLatencyMs")))));
+        try (ConfigurableApplicationContext context = application.run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:create-" + groupCommit + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.hikari.maximum-pool-size=" + options.get("poolSize"),
+                "--spring.jpa.show-sql=false",
+                "--spot.snapshot.rebuild-delay=1h",
+                "--spot.group-commit.enabled=" + groupCommit,
+                "--spot.group-commit.max-batch=" + options.get("maxBatch"),
+                "--spot.group-commit.max-delay=" + options.get("maxDelay"),
+                "--logging.level.root=WARN")) {
+            SpotService spotService = context.getBean(SpotService.class);
+            int concurrency = Integer.parseInt(options.get("concurrency"));
+            drive(spotService, concurrency, Duration.parse("PT" + options.get("warmup")));
+            return drive(spotService, concurrency, Duration.parse("PT" + options.get("duration")));
+        }
+    }
+
+    private static Result drive(SpotService spotService, int concurrency, Duration duration)
+            throws InterruptedException {
+        LongAdder ok = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long[][] latencies = new long[concurrency][];
+        AtomicBoolean running = new AtomicBoolean(true);
+        SpotRequest request = SpotRequest.builder().name("Load").latitude(45.0).longitude(5.0).build();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                int client = c;
+                clients.execute(() -> {
+                    SecurityContextHolder.getContext().setAuthentication(
+                            new UsernamePasswordAuthenticationToken("load-" + client, null, List.of()));
+                    long[] samples = new long[1024];
+                    int n = 0;
+                    while (running.get()) {
+                        long start = System.nanoTime();
+                        try {
+                            spotService.createSpot(request);
+                        } catch (RuntimeException e) {
+                            failed.increment();
+                            continue;
+                        }
+                        if (n == samples.length) {
+                            samples = Arrays.copyOf(samples, n * 2);
+                        }
+                        samples[n++] = System.nanoTime() - start;
+                        ok.increment();
+                    }
+                    latencies[client] = Arrays.copyOf(samples, n);
+                });
+            }
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+            clients.shutdown();
+        }
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(ok.sum() / (duration.toMillis() / 1000.0), failed.sum(),
+                percentileMs(all, 0.50), percentileMs(all, 0.99));
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1_000_000.0;
+    }
+
+    private record Result(double createsPerSecond, long failed, double p50Ms, double p99Ms) {
+        @Override
+        public String toString() {
+            return String.format("%10.0f creates/s   p50 %8.2f ms   p99 %8.2f ms   failed %d",
+                    createsPerSecond, p50Ms, p99Ms, failed);
+        }
+    }
+
+    /**
+     * Sleeps in each commit, while the pooled connection is checked out.
+     */
+    private record SlowCommits(long latencyMs) implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (latencyMs <= 0 || !(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return slow(super.getConnection());
+                }
+            };
+        }
+
+        private Connection slow(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, methodArgs) -> {
+                        if (method.getName().equals("commit")) {
+                            Thread.sleep(latencyMs);
+                        }
+                        try {
+                            return method.invoke(connection, methodArgs);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.example.dto.SpotResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Encoding of a {@code GET /api/spots} payload in each format offered through content negotiation.
+ * {@link #main} prints the payload size for each combination of the parameters:
+ * <pre>
+ * mvn -Pbenchmark -DskipTests test-compile exec:exec@payload-sizes
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpotSerializationBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"50", "1000"})
+    private int spots;
+
+    private ObjectWriter writer;
+    private List<SpotResponse> payload;
+
+    public static void main(String[] args) throws Exception {
+        for (int count : new int[]{50, 1000}) {
+            for (String name : new String[]{"json", "cbor", "smile"}) {
+                System.out.printf("%-5s %5d spots: %8d bytes%n", name, count,
+                        writer(name).writeValueAsBytes(payload(count)).length);
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        writer = writer(format);
+        payload = payload(spots);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return writer.writeValueAsBytes(payload);
+    }
+
+    private static ObjectWriter writer(String format) {
+        JsonFactory factory = switch (format) {
+            case "json" -> new JsonFactory();
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        // Same construction as the HTTP message converters
+        return Jackson2ObjectMapperBuilder.json().factory(factory).build()
+                .writerFor(new TypeReference<List<SpotResponse>>() { });
+    }
+
+    private static List<SpotResponse> payload(int spots) {
+        return IntStream.range(0, spots)
+                .mapToObj(i -> SpotResponse.builder()
+                        .id((long) i + 1)
+                        .name("Skatepark " + i)
+                        .description("Bowl, street et mini-rampe, éclairé le soir. Accès libre, casque conseillé. #" + i)
+                        .location(i % 2 == 0 ? "Paris" : "Lyon")
+                        .latitude(45 + (i % 100) * 0.013)
+                        .longitude(2 + (i / 100) * 0.017)
+                        .createdBy("user" + i % 20)
+                        .build())
+                .toList();
+    }
+}
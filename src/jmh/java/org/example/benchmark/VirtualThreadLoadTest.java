@@ -0,0 +1,196 @@
+package org.example.benchmark;
+
+import org.example.Main;
+import org.example.model.Spot;
+import org.example.repository.SpotRepository;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Closed-loop load test comparing request throughput with platform and virtual request threads.
+ * <p>
+ * The application is started twice in this JVM (embedded H2, random port), once per mode, and
+ * {@code concurrency} clients each send requests back to back for {@code duration}. {@code dbLatencyMs}
+ * delays every statement while it holds its connection, to stand in for a database reached over the network.
+ * <pre>
+ * mvn -Pbenchmark -DskipTests test-compile exec:exec@load-test \
+ *     -Dload.args="concurrency=1000 duration=20s dbLatencyMs=5 poolSize=50"
+ * </pre>
+ */
+public class VirtualThreadLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        // devtools would restart this main method in its own class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, String> options = new HashMap<>(Map.of(
+                "concurrency", "1000",
+                "duration", "15s",
+                "warmup", "5s",
+                "path", "/api/spots?limit=50",
+                "dbLatencyMs", "0",
+                "poolSize", "10",
+                "spots", "1000"));
+        Arrays.stream(args).map(arg -> arg.split("=", 2)).forEach(kv -> options.put(kv[0], kv[1]));
+
+        List<String> lines = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            lines.add((virtual ? "virtual  " : "platform ") + run(virtual, options));
+        }
+        System.out.println();
+        System.out.println("Load test " + options);
+        lines.forEach(System.out::println);
+    }
+
+    private static Result run(boolean virtual, Map<String, String> options) throws Exception {
+        long dbLatencyMs = Long.parseLong(options.get("dbLatencyMs"));
+        SpringApplication application = new SpringApplication(Main.class);
+        application.addInitializers(context -> context.getBeanFactory()
+                .addBeanPostProcessor(new SlowStatements(dbLatencyMs)));
+        try (ConfigurableApplicationContext context = application.run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--spring.datasource.url=jdbc:h2:mem:load-" + virtual + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.hikari.maximum-pool-size=" + options.get("poolSize"),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN")) {
+            seed(context.getBean(SpotRepository.class), Integer.parseInt(options.get("spots")));
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + options.get("path"));
+            int concurrency = Integer.parseInt(options.get("concurrency"));
+            drive(uri, concurrency, Duration.parse("PT" + options.get("warmup")));
+            return drive(uri, concurrency, Duration.parse("PT" + options.get("duration")));
+        }
+    }
+
+    private static void seed(SpotRepository repository, int count) {
+        repository.saveAll(IntStream.range(0, count)
+                .mapToObj(i -> Spot.builder()
+                        .name("Spot " + i)
+                        .latitude(45 + (i % 100) * 0.01)
+                        .longitude(5 + (i / 100) * 0.01)
+                        .createdBy("load")
+                        .build())
+                .toList());
+    }
+
+    private static Result drive(URI uri, int concurrency, Duration duration) throws InterruptedException {
+        LongAdder ok = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long[][] latencies = new long[concurrency][];
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        // Virtual threads on the client side so that the load generator is never the bottleneck
+        try (HttpClient http = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).build();
+            for (int c = 0; c < concurrency; c++) {
+                int client = c;
+                clients.execute(() -> {
+                    long[] samples = new long[1024];
+                    int n = 0;
+                    while (running.get()) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                failed.increment();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            if (running.get()) {
+                                failed.increment();
+                            }
+                            continue;
+                        }
+                        if (n == samples.length) {
+                            samples = Arrays.copyOf(samples, n * 2);
+                        }
+                        samples[n++] = System.nanoTime() - start;
+                        ok.increment();
+                    }
+                    latencies[client] = Arrays.copyOf(samples, n);
+                });
+            }
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+            clients.shutdown();
+        }
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(ok.sum() / (duration.toMillis() / 1000.0), failed.sum(),
+                percentileMs(all, 0.50), percentileMs(all, 0.99));
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1_000_000.0;
+    }
+
+    private record Result(double requestsPerSecond, long failed, double p50Ms, double p99Ms) {
+        @Override
+        public String toString() {
+            return String.format("%10.0f req/s   p50 %8.2f ms   p99 %8.2f ms   failed %d",
+                    requestsPerSecond, p50Ms, p99Ms, failed);
+        }
+    }
+
+    /**
+     * Sleeps before each statement is prepared, while the pooled connection is checked out.
+     */
+    private record SlowStatements(long latencyMs) implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (latencyMs <= 0 || !(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return slow(super.getConnection());
+                }
+            };
+        }
+
+        private Connection slow(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, methodArgs) -> {
+                        if (method.getName().startsWith("prepare")) {
+                            Thread.sleep(latencyMs);
+                        }
+                        try {
+                            return method.invoke(connection, methodArgs);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.SpotResponse;
+import org.example.model.Spot;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping and JSON encoding of the spot list returned by {@code GET /api/spots}.
+ * Lives in the service package to reach the package-private {@link SpotService#mapToResponse}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpotResponseBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private List<Spot> spots;
+    private List<SpotResponse> responses;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        spots = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            spots.add(Spot.builder()
+                    .id(i)
+                    .name("Skatepark " + i)
+                    .description("Bowl, curbs and a long flat rail next to the river bank, lit until midnight")
+                    .location("Paris")
+                    .latitude(48.8566 + i / 100000.0)
+                    .longitude(2.3522 - i / 100000.0)
+                    .createdBy("user" + (i % 50))
+                    .build());
+        }
+        responses = spots.stream().map(SpotService::mapToResponse).toList();
+        // Same defaults as the ObjectMapper auto-configured by Spring Boot
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public List<SpotResponse> mapToResponse() {
+        return spots.stream().map(SpotService::mapToResponse).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializeJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(spots.stream().map(SpotService::mapToResponse).toList());
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Adds a {@code handler} tag ({@code SpotController#getSpotById}) to {@code http.server.requests}, so that
+ * latencies can be broken down per controller method and not only per URI template.
+ */
+public class HandlerObservationConvention extends DefaultServerRequestObservationConvention {
+
+    static final String NO_HANDLER = "none";
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context)
+                .and(KeyValue.of("handler", handlerName(context.getCarrier())));
+    }
+
+    static String handlerName(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "#" + method.getMethod().getName();
+        }
+        return NO_HANDLER;
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public ServerRequestObservationConvention handlerObservationConvention() {
+        return new HandlerObservationConvention();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+    }
+
+    @Bean
+    public FilterRegistrationBean<StatementCountFilter> statementCountFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<StatementCountFilter> registration =
+                new FilterRegistrationBean<>(new StatementCountFilter(meterRegistry));
+        // Right after the observation filter, so that the security filters' queries are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
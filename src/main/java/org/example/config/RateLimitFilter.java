@@ -0,0 +1,168 @@
+package org.example.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per client address for the routes of {@link RateLimitProperties}, checked before the JWT filter
+ * so that a rejected request costs neither a token verification nor a password hash. Requests over the limit get
+ * 429 with a {@code Retry-After} header; requests matching no route only pay for a method lookup.
+ * <p>
+ * A bucket is a single {@link AtomicLong} holding its theoretical arrival time (GCRA), updated by compare-and-set,
+ * so concurrent requests never lock. Buckets live in a Caffeine cache bounded by {@code max-keys} and expire
+ * after being idle long enough to be full again, when dropping one is the same as keeping it.
+ * <p>
+ * Metrics: {@code http.ratelimit.rejected} and {@code http.ratelimit.keys}, tagged {@code route}.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final List<Limit> limits;
+    private final ObjectMapper objectMapper;
+    private final Ticker ticker;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(properties, objectMapper, meterRegistry, Ticker.systemTicker());
+    }
+
+    RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                    Ticker ticker) {
+        this.limits = properties.routes().stream()
+                .map(route -> new Limit(route, properties.maxKeys(), ticker, meterRegistry))
+                .toList();
+        this.objectMapper = objectMapper;
+        this.ticker = ticker;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        PathContainer path = null;
+        for (Limit limit : limits) {
+            if (!limit.matchesMethod(request.getMethod())) {
+                continue;
+            }
+            if (path == null) {
+                path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+            }
+            if (limit.matchesPath(path)) {
+                long waitNanos = limit.tryAcquire(request.getRemoteAddr(), ticker.read());
+                if (waitNanos > 0) {
+                    limit.rejected.increment();
+                    reject(response, waitNanos);
+                    return;
+                }
+                break;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("message", "Too many requests, please retry later");
+        error.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    private static final class Limit {
+
+        private final Set<String> methods;
+        private final List<PathPattern> paths;
+        private final long interval;
+        private final long burst;
+        private final Cache<String, AtomicLong> buckets;
+        private final Counter rejected;
+
+        Limit(RateLimitProperties.Route route, int maxKeys, Ticker ticker, MeterRegistry meterRegistry) {
+            if (route.capacity() < 1 || route.refillPeriod() == null || !route.refillPeriod().isPositive()) {
+                throw new IllegalArgumentException(
+                        "rate-limit route " + route.name() + ": capacity and refill-period must be positive");
+            }
+            if (route.paths() == null || route.paths().isEmpty()) {
+                throw new IllegalArgumentException("rate-limit route " + route.name() + ": paths must not be empty");
+            }
+            this.methods = route.methods() != null ? Set.copyOf(route.methods()) : Set.of();
+            this.paths = route.paths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+            this.interval = route.refillPeriod().toNanos();
+            this.burst = Math.multiplyExact(interval, route.capacity());
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(Duration.ofNanos(burst))
+                    .ticker(ticker)
+                    .build();
+
+            Gauge.builder("http.ratelimit.keys", buckets, Cache::estimatedSize)
+                    .description("Clients currently tracked by the rate limiter")
+                    .tag("route", route.name())
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("http.ratelimit.rejected")
+                    .description("Requests refused with 429 by the rate limiter")
+                    .tag("route", route.name())
+                    .register(meterRegistry);
+        }
+
+        boolean matchesMethod(String method) {
+            return methods.isEmpty() || methods.contains(method);
+        }
+
+        boolean matchesPath(PathContainer path) {
+            for (PathPattern pattern : paths) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Returns 0 when the request is allowed, otherwise how long the client should wait
+        long tryAcquire(String key, long now) {
+            AtomicLong arrival = buckets.get(key, k -> new AtomicLong(now));
+            while (true) {
+                long current = arrival.get();
+                long next = Math.max(current, now) + interval;
+                long excess = next - now - burst;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (arrival.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Per-route client limits, bound from {@code rate-limit} in {@code application.yml}.
+ *
+ * @param enabled whether {@link RateLimitFilter} is installed at all
+ * @param maxKeys clients tracked per route; the least used ones are forgotten beyond it
+ * @param routes  checked in order, the first route matching the method and path applies
+ */
+@ConfigurationProperties("rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("100000") int maxKeys,
+                                  List<Route> routes) {
+
+    public RateLimitProperties {
+        routes = routes != null ? List.copyOf(routes) : List.of();
+    }
+
+    /**
+     * @param methods      HTTP methods of the route, all methods when empty
+     * @param paths        path patterns, e.g. {@code /api/spots/**}
+     * @param capacity     requests a client can send in a burst
+     * @param refillPeriod time for a client to get one request back, i.e. the sustained rate
+     */
+    public record Route(String name, Set<String> methods, List<String> paths, int capacity, Duration refillPeriod) {
+    }
+}
@@ -1,6 +1,9 @@
 package org.example.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -17,12 +20,16 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 @RequiredArgsConstructor
 @SuppressWarnings("unused")
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final AuthenticationProvider authenticationProvider;
+    private final RateLimitProperties rateLimitProperties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
 
     @Bean
     @SuppressWarnings("unused")
@@ -32,6 +39,9 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/h2-console/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/spots/mine").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/spots/**").permitAll()
                         .anyRequest().authenticated()
                 )
@@ -44,6 +54,12 @@ public class SecurityConfig {
                         .frameOptions(HeadersConfigurer.FrameOptionsConfig::disable)
                 ); // Pour H2 Console
 
+        if (rateLimitProperties.enabled()) {
+            // Not a bean, so that it only runs in the security chain and not a second time as a servlet filter
+            http.addFilterBefore(new RateLimitFilter(rateLimitProperties, objectMapper, meterRegistry),
+                    JwtAuthenticationFilter.class);
+        }
+
         return http.build();
     }
 }
@@ -0,0 +1,51 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the number of Hibernate statements each request executed on its thread, including the
+ * principal lookup of the security filters, as {@code hibernate.statements.per.request} tagged by handler.
+ * The summaries are registered once per handler, keeping the builder and registry lookup off the request path.
+ */
+@RequiredArgsConstructor
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    // Bounded by the number of handler methods
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        long before = StatementCounter.count();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long statements = StatementCounter.count() - before;
+            summaries.computeIfAbsent(HandlerObservationConvention.handlerName(request), this::summary)
+                    .record(statements);
+        }
+    }
+
+    private DistributionSummary summary(String handler) {
+        return DistributionSummary.builder("hibernate.statements.per.request")
+                .description("SQL statements prepared by Hibernate while serving a request")
+                .tag("handler", handler)
+                .register(meterRegistry);
+    }
+}
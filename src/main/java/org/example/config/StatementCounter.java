@@ -0,0 +1,26 @@
+package org.example.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread. Callers take the difference between two
+ * reads of {@link #count()}, so overlapping measurements (per-request metrics, test assertions) do not
+ * interfere with each other.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Returns the number of statements prepared so far on the current thread.
+     */
+    public static long count() {
+        return COUNT.get()[0];
+    }
+}
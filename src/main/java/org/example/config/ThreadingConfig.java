@@ -0,0 +1,25 @@
+package org.example.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Extra wiring for {@code spring.threads.virtual.enabled=true}. Spring Boot already moves the Tomcat request
+ * threads, the application task executor (MVC async and {@code @Async}) and the scheduler to virtual threads;
+ * this adds the pinning monitor so that blocking calls made under a monitor show up in the metrics.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        return new VirtualThreadPinningMonitor(threshold);
+    }
+}
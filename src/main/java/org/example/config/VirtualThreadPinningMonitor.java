@@ -0,0 +1,68 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} events of the running JVM into the
+ * {@code jvm.threads.virtual.pinned} timer and logs the frame that blocked while pinned, so that a
+ * {@code synchronized} block doing I/O shows up before it starves the carrier threads.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements MeterBinder, AutoCloseable {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        if (stream != null) {
+            return;
+        }
+        Timer pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads spent blocked while pinned to their carrier thread")
+                .register(registry);
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> {
+            pinned.record(event.getDuration());
+            log.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(),
+                    topFrame(event.getStackTrace()));
+        });
+        stream.startAsync();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    private static String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame() && !frame.getMethod().getType().getName().startsWith("java.")) {
+                return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber();
+            }
+        }
+        return "unknown";
+    }
+}
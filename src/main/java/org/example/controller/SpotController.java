@@ -1,14 +1,32 @@
 package org.example.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.dto.CursorPage;
+import org.example.dto.SpotChanges;
+import org.example.dto.SpotCluster;
+import org.example.dto.SpotField;
+import org.example.dto.SpotImportResponse;
 import org.example.dto.SpotRequest;
 import org.example.dto.SpotResponse;
+import org.example.exception.PreconditionFailedException;
+import org.example.service.SpotImportService;
 import org.example.service.SpotService;
+import org.example.service.SpotSnapshot;
+import org.example.service.SpotStream;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/spots")
@@ -16,15 +34,142 @@ import java.util.List;
 public class SpotController {
 
     private final SpotService spotService;
+    private final SpotImportService spotImportService;
+    private final SpotSnapshot spotSnapshot;
+    private final SpotStream spotStream;
 
-    @GetMapping
+    // JSON list served from the in-memory snapshot; If-None-Match with the current ETag gets a 304
+    @GetMapping(params = {"!after", "!limit", "!fields"})
+    public ResponseEntity<byte[]> getAllSpotsSnapshot(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        SpotSnapshot.Snapshot snapshot = spotSnapshot.current();
+        boolean gzipped = acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(snapshot.etag(gzipped))
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzipped) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(snapshot.body(gzipped));
+    }
+
+    // Binary representations are serialized per request
+    @GetMapping(params = {"!after", "!limit", "!fields"},
+            produces = {MediaType.APPLICATION_CBOR_VALUE, "application/x-jackson-smile"})
     public ResponseEntity<List<SpotResponse>> getAllSpots() {
         return ResponseEntity.ok(spotService.getAllSpots());
     }
 
-    @GetMapping("/{id}")
+    // Keyset pagination: ?after=<last id of the previous page>&limit=N
+    @GetMapping(params = "!fields")
+    public ResponseEntity<CursorPage<SpotResponse>> getSpotsPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        return ResponseEntity.ok(spotService.getSpotsPage(after, limit));
+    }
+
+    // Spots created by the caller, paginated like above; the first page carries the total
+    @GetMapping("/mine")
+    public ResponseEntity<CursorPage<SpotResponse>> getMySpots(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        return ResponseEntity.ok(spotService.getMySpots(after, limit));
+    }
+
+    // Sparse fieldsets: ?fields=name,latitude,longitude (the id is always returned)
+    @GetMapping(params = {"fields", "!after", "!limit"})
+    public ResponseEntity<List<Map<String, Object>>> getAllSpots(@RequestParam String fields) {
+        return ResponseEntity.ok(spotService.getAllSpots(SpotField.parse(fields)));
+    }
+
+    @GetMapping(params = "fields")
+    public ResponseEntity<CursorPage<Map<String, Object>>> getSpotsPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam String fields
+    ) {
+        return ResponseEntity.ok(spotService.getSpotsPage(after, limit, SpotField.parse(fields)));
+    }
+
+    // Live feed of changes (server-sent events); see SpotStream for the event types
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges() {
+        return ResponseEntity.ok(spotStream.subscribe());
+    }
+
+    // Delta sync: creates, updates and deletes after the version returned by the previous call (0 for a full sync)
+    @GetMapping("/changes")
+    public ResponseEntity<SpotChanges> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit
+    ) {
+        return ResponseEntity.ok(spotService.getChanges(since, limit));
+    }
+
+    // Spots inside a bounding box; minLon > maxLon for a box crossing the antimeridian
+    @GetMapping("/within")
+    public ResponseEntity<List<SpotResponse>> getSpotsWithin(
+            @RequestParam double minLat,
+            @RequestParam double minLon,
+            @RequestParam double maxLat,
+            @RequestParam double maxLon,
+            @RequestParam(defaultValue = "200") int limit
+    ) {
+        return ResponseEntity.ok(spotService.getSpotsWithin(minLat, minLon, maxLat, maxLon, limit));
+    }
+
+    // Map view: spots aggregated per grid cell; minLon > maxLon for a box crossing the antimeridian
+    @GetMapping("/clusters")
+    public ResponseEntity<List<SpotCluster>> getClusters(
+            @RequestParam double minLat,
+            @RequestParam double minLon,
+            @RequestParam double maxLat,
+            @RequestParam double maxLon,
+            @RequestParam int zoom,
+            @RequestParam(defaultValue = "false") boolean samples
+    ) {
+        return ResponseEntity.ok(spotService.getClusters(minLat, minLon, maxLat, maxLon, zoom, samples));
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<List<SpotResponse>> getNearbySpots(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "10") double radiusKm,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        return ResponseEntity.ok(spotService.getNearbySpots(lat, lon, radiusKm, limit));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<SpotResponse>> searchSpots(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(spotService.searchSpots(q, limit));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportSpots() {
+        StreamingResponseBody body = spotService::exportSpots;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping(value = "/{id}", params = "!fields")
     public ResponseEntity<SpotResponse> getSpotById(@PathVariable Long id) {
-        return ResponseEntity.ok(spotService.getSpotById(id));
+        return versioned(spotService.getSpotById(id));
+    }
+
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getSpotById(@PathVariable Long id, @RequestParam String fields) {
+        return ResponseEntity.ok(spotService.getSpotById(id, SpotField.parse(fields)));
     }
 
     @PostMapping
@@ -32,18 +177,68 @@ public class SpotController {
         return ResponseEntity.status(HttpStatus.CREATED).body(spotService.createSpot(request));
     }
 
+    // Bulk import: JSON array or NDJSON, one spot per row
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<SpotImportResponse> importSpots(InputStream body) throws IOException {
+        return ResponseEntity.ok(spotImportService.importSpots(body));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<SpotResponse> updateSpot(
             @PathVariable Long id,
-            @RequestBody SpotRequest request
+            @RequestBody SpotRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return ResponseEntity.ok(spotService.updateSpot(id, request));
+        return versioned(spotService.updateSpot(id, request, expectedVersion(ifMatch)));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteSpot(@PathVariable Long id) {
-        spotService.deleteSpot(id);
+    public ResponseEntity<Void> deleteSpot(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        spotService.deleteSpot(id, expectedVersion(ifMatch));
         return ResponseEntity.noContent().build();
     }
-}
 
+    // The spot's version as a strong ETag; a matching If-None-Match gets 304
+    private static ResponseEntity<SpotResponse> versioned(SpotResponse spot) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (spot.getVersion() != null) {
+            response.eTag(String.valueOf(spot.getVersion()));
+        }
+        return response.body(spot);
+    }
+
+    // Absent or * means any version. Only a single strong ETag from GET /{id} can match (weak ones never do).
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        List<ETag> etags = ETag.parse(ifMatch);
+        if (etags.size() == 1 && etags.get(0).isWildcard()) {
+            return null;
+        }
+        if (etags.size() == 1 && !etags.get(0).weak()) {
+            try {
+                return Long.valueOf(etags.get(0).tag());
+            } catch (NumberFormatException e) {
+                // Not one of ours: cannot match
+            }
+        }
+        throw new PreconditionFailedException("If-Match must be a single ETag returned by GET /api/spots/{id}");
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
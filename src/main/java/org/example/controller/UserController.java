@@ -1,8 +1,12 @@
 package org.example.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.dto.CursorPage;
+import org.example.dto.SpotResponse;
 import org.example.dto.UserRequest;
 import org.example.dto.UserResponse;
+import org.example.model.User;
+import org.example.service.SpotService;
 import org.example.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +22,7 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final SpotService spotService;
 
     // Admin only: list all users
     @GetMapping
@@ -41,6 +46,18 @@ public class UserController {
         return ResponseEntity.ok(userService.getUserById(id));
     }
 
+    // Admin only: spots created by a user, paginated like /api/spots/mine
+    @GetMapping("/{id}/spots")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<CursorPage<SpotResponse>> getUserSpots(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        String username = userService.getUserById(id).getUsername();
+        return ResponseEntity.ok(spotService.getSpotsByCreator(username, after, limit));
+    }
+
     // Create user: admin only (register endpoint exists for self registration)
     @PostMapping
     @PreAuthorize("hasAuthority('ADMIN')")
@@ -52,8 +69,9 @@ public class UserController {
     @PutMapping("/{id}")
     public ResponseEntity<UserResponse> updateUser(@PathVariable Long id, @RequestBody UserRequest request, Authentication authentication) {
         boolean isAdmin = authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ADMIN"));
-        UserResponse user = userService.getUserById(id);
-        if (!isAdmin && !user.getUsername().equals(authentication.getName())) {
+        // The principal is the User entity loaded by the JWT filter: no need to load the user again to check ownership
+        boolean isOwner = authentication.getPrincipal() instanceof User principal && id.equals(principal.getId());
+        if (!isAdmin && !isOwner) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         return ResponseEntity.ok(userService.updateUser(id, request));
@@ -0,0 +1,20 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private Long nextCursor; // null on the last page
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long total; // only on the first page of listings that count
+}
@@ -0,0 +1,26 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpotChange {
+
+    public enum Type {
+        UPSERT,
+        DELETE
+    }
+
+    private Type type;
+    private long version;
+    private Long id;
+    private Instant at;
+    private SpotResponse spot; // null for DELETE
+}
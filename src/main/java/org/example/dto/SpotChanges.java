@@ -0,0 +1,18 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpotChanges {
+    private List<SpotChange> changes; // ordered by version
+    private long version; // pass as since on the next call
+    private boolean hasMore;
+}
@@ -0,0 +1,20 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpotCluster {
+    private double latitude;
+    private double longitude;
+    private long count;
+    @Builder.Default
+    private List<Long> sampleIds = List.of();
+}
@@ -0,0 +1,56 @@
+package org.example.dto;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Fields of a {@link SpotResponse} that can be requested with {@code ?fields=}. Each name is both the JSON
+ * property and the {@code Spot} attribute selected in the query.
+ */
+public enum SpotField {
+    ID("id", SpotResponse::getId),
+    NAME("name", SpotResponse::getName),
+    DESCRIPTION("description", SpotResponse::getDescription),
+    LOCATION("location", SpotResponse::getLocation),
+    LATITUDE("latitude", SpotResponse::getLatitude),
+    LONGITUDE("longitude", SpotResponse::getLongitude),
+    CREATED_BY("createdBy", SpotResponse::getCreatedBy);
+
+    private final String property;
+    private final Function<SpotResponse, Object> getter;
+
+    SpotField(String property, Function<SpotResponse, Object> getter) {
+        this.property = property;
+        this.getter = getter;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public Object valueOf(SpotResponse spot) {
+        return getter.apply(spot);
+    }
+
+    /**
+     * Parses a comma-separated list such as {@code "name,latitude,longitude"}. The id is always included:
+     * clients need it to address the spot and pagination uses it as cursor.
+     */
+    public static Set<SpotField> parse(String fields) {
+        Set<SpotField> selected = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(Arrays.stream(values())
+                    .filter(field -> field.property.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown field: " + trimmed
+                            + ", expected any of " + Arrays.stream(values()).map(SpotField::property).toList())));
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpotImportResponse {
+    private int imported;
+    private int failed;
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>(); // capped, see failed for the total
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private int index; // 0-based position of the row in the request body
+        private String message;
+    }
+}
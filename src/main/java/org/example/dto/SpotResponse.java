@@ -1,5 +1,6 @@
 package org.example.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,5 +18,9 @@ public class SpotResponse {
     private Double latitude;
     private Double longitude;
     private String createdBy;
+
+    // Sent as the ETag header rather than in the body
+    @JsonIgnore
+    private Long version;
 }
 
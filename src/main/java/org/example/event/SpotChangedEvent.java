@@ -0,0 +1,36 @@
+package org.example.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.example.dto.SpotResponse;
+
+import java.time.Instant;
+
+@Getter
+@RequiredArgsConstructor
+public class SpotChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final Long spotId;
+    private final SpotResponse spot; // null for DELETED
+    private final Long version; // change version stamped by SpotChangeVersions
+    private final Instant at;
+
+    public static SpotChangedEvent created(SpotResponse spot, Long version, Instant at) {
+        return new SpotChangedEvent(Type.CREATED, spot.getId(), spot, version, at);
+    }
+
+    public static SpotChangedEvent updated(SpotResponse spot, Long version, Instant at) {
+        return new SpotChangedEvent(Type.UPDATED, spot.getId(), spot, version, at);
+    }
+
+    public static SpotChangedEvent deleted(Long spotId, Long version, Instant at) {
+        return new SpotChangedEvent(Type.DELETED, spotId, null, version, at);
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.exception;
+
+/**
+ * Thrown when an {@code If-Match} precondition does not hold; mapped to 412.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
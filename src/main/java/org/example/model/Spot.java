@@ -6,16 +6,26 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Entity
-@Table(name = "spots")
+@Table(name = "spots", indexes = {
+        // Bounding-box queries: range scan on latitude, longitude filtered from the index entries
+        @Index(name = "idx_spots_lat_lon", columnList = "latitude, longitude"),
+        // Owner listings: equality on created_by, then a range scan in id order for keyset pagination
+        @Index(name = "idx_spots_created_by_id", columnList = "created_by, id"),
+        @Index(name = "idx_spots_change_version", columnList = "change_version")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Spot {
 
+    // Pooled sequence: ids are reserved in blocks, which lets Hibernate batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "spots_seq")
+    @SequenceGenerator(name = "spots_seq", sequenceName = "spots_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -31,5 +41,16 @@ public class Spot {
 
     @Column(name = "created_by")
     private String createdBy;
+
+    // Stamped on every write by SpotChangeVersions, read by the changes feed
+    @Column(name = "change_version")
+    private Long changeVersion;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    // Optimistic lock: the ETag of GET /api/spots/{id}, checked against If-Match by the conditional writes
+    @Version
+    private Long version;
 }
 
@@ -0,0 +1,31 @@
+package org.example.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Trace of a deleted spot for the changes feed; a spot id deleted again (ids can be reused) keeps only its latest
+@Entity
+@Table(name = "spot_tombstones", indexes = {
+        @Index(name = "idx_spot_tombstones_change_version", columnList = "change_version")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpotTombstone {
+
+    @Id
+    @Column(name = "spot_id")
+    private Long spotId;
+
+    @Column(name = "change_version", nullable = false)
+    private Long changeVersion;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+}
@@ -1,14 +1,95 @@
 package org.example.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.dto.SpotRequest;
+import org.example.dto.SpotResponse;
 import org.example.model.Spot;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Read queries select straight into {@link SpotResponse}: no managed entities, no dirty-checking snapshots.
+ * Entities are only loaded by the write paths. {@link SpotRepositoryCustom} narrows the select further to the
+ * fields a client asked for.
+ */
 @Repository
-public interface SpotRepository extends JpaRepository<Spot, Long> {
-    List<Spot> findByCreatedBy(String username);
+@Transactional(readOnly = true)
+public interface SpotRepository extends JpaRepository<Spot, Long>, SpotRepositoryCustom {
+
+    int STREAM_FETCH_SIZE = 500;
+
+    String SELECT_RESPONSE = "select new org.example.dto.SpotResponse("
+            + "s.id, s.name, s.description, s.location, s.latitude, s.longitude, s.createdBy, s.version) from Spot s";
+
     List<Spot> findByNameContainingIgnoreCase(String name);
-}
 
+    @Query(SELECT_RESPONSE)
+    List<SpotResponse> findAllResponses();
+
+    @Query(SELECT_RESPONSE + " where s.id = :id")
+    Optional<SpotResponse> findResponseById(Long id);
+
+    @Query(SELECT_RESPONSE + " where s.id in :ids")
+    List<SpotResponse> findResponsesByIdIn(Collection<Long> ids);
+
+    @Query(SELECT_RESPONSE + " where s.createdBy = :username")
+    List<SpotResponse> findByCreatedBy(String username);
+
+    // Served by idx_spots_created_by_id: one range scan however many spots the user has
+    @Query(SELECT_RESPONSE + " where s.createdBy = :username and s.id > :after order by s.id")
+    List<SpotResponse> findByCreatedByAfter(String username, long after, Limit limit);
+
+    long countByCreatedBy(String username);
+
+    @Query(SELECT_RESPONSE + " where s.id > :after order by s.id")
+    List<SpotResponse> findPageAfter(long after, Limit limit);
+
+    @Query(SELECT_RESPONSE + " where s.latitude between :minLat and :maxLat"
+            + " and s.longitude between :minLon and :maxLon")
+    List<SpotResponse> findWithin(double minLat, double minLon, double maxLat, double maxLon, Limit limit);
+
+    // Box crossing the antimeridian: minLon > maxLon
+    @Query(SELECT_RESPONSE + " where s.latitude between :minLat and :maxLat"
+            + " and (s.longitude >= :minLon or s.longitude <= :maxLon)")
+    List<SpotResponse> findWithinAcrossAntimeridian(double minLat, double minLon, double maxLat, double maxLon,
+                                                    Limit limit);
+
+    // Changes feed: entities are read in a read-only transaction, so Hibernate keeps no snapshot of them
+    @Query("select s from Spot s where s.changeVersion > :since and s.changeVersion <= :upTo order by s.changeVersion")
+    List<Spot> findChanged(long since, long upTo, Limit limit);
+
+    @Query("select coalesce(max(s.changeVersion), 0) from Spot s")
+    long maxChangeVersion();
+
+    // Conditional writes: a single statement that only applies at expectedVersion, or at any version when it is null
+    @Modifying
+    @Transactional
+    @Query("update Spot s set s.name = :#{#request.name}, s.description = :#{#request.description},"
+            + " s.location = :#{#request.location}, s.latitude = :#{#request.latitude},"
+            + " s.longitude = :#{#request.longitude}, s.changeVersion = :changeVersion, s.updatedAt = :updatedAt,"
+            + " s.version = s.version + 1"
+            + " where s.id = :id and s.version = coalesce(:expectedVersion, s.version)")
+    int updateIfVersion(Long id, Long expectedVersion, SpotRequest request, long changeVersion, Instant updatedAt);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Spot s where s.id = :id and s.version = coalesce(:expectedVersion, s.version)")
+    int deleteIfVersion(Long id, Long expectedVersion);
+
+    // Must be consumed inside a transaction and closed by the caller
+    @Query(SELECT_RESPONSE + " order by s.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    Stream<SpotResponse> streamAll();
+}
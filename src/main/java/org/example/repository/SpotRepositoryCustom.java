@@ -0,0 +1,22 @@
+package org.example.repository;
+
+import org.example.dto.SpotField;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Sparse reads: only the columns of the requested {@link SpotField}s are selected. Rows come back as maps
+ * keyed by {@link SpotField#property()}, in declaration order.
+ */
+public interface SpotRepositoryCustom {
+
+    List<Map<String, Object>> findFields(Set<SpotField> fields);
+
+    // Keyset page ordered by id
+    List<Map<String, Object>> findFieldsPageAfter(Set<SpotField> fields, long after, int limit);
+
+    Optional<Map<String, Object>> findFieldsById(Set<SpotField> fields, Long id);
+}
@@ -0,0 +1,71 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.example.dto.SpotField;
+import org.example.model.Spot;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+@RequiredArgsConstructor
+class SpotRepositoryCustomImpl implements SpotRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFields(Set<SpotField> fields) {
+        return toMaps(query(fields, (query, spot) -> { }).getResultList());
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsPageAfter(Set<SpotField> fields, long after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        return toMaps(query(fields, (query, spot) -> query
+                .where(cb.gt(spot.get("id"), after))
+                .orderBy(cb.asc(spot.get("id"))))
+                .setMaxResults(limit)
+                .getResultList());
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(Set<SpotField> fields, Long id) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        return toMaps(query(fields, (query, spot) -> query.where(cb.equal(spot.get("id"), id))).getResultList())
+                .stream()
+                .findFirst();
+    }
+
+    // select <fields> from Spot, with the restriction applied by the caller
+    private TypedQuery<Tuple> query(Set<SpotField> fields, BiConsumer<CriteriaQuery<Tuple>, Root<Spot>> restriction) {
+        CriteriaQuery<Tuple> query = entityManager.getCriteriaBuilder().createTupleQuery();
+        Root<Spot> spot = query.from(Spot.class);
+        List<Selection<?>> selections = fields.stream()
+                .<Selection<?>>map(field -> spot.get(field.property()).alias(field.property()))
+                .toList();
+        query.multiselect(selections);
+        restriction.accept(query, spot);
+        return entityManager.createQuery(query);
+    }
+
+    private static List<Map<String, Object>> toMaps(List<Tuple> rows) {
+        return rows.stream().map(row -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (TupleElement<?> element : row.getElements()) {
+                values.put(element.getAlias(), row.get(element));
+            }
+            return values;
+        }).toList();
+    }
+}
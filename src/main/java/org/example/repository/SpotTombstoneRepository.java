@@ -0,0 +1,28 @@
+package org.example.repository;
+
+import org.example.model.SpotTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface SpotTombstoneRepository extends JpaRepository<SpotTombstone, Long> {
+
+    @Query("select t from SpotTombstone t where t.changeVersion > :since and t.changeVersion <= :upTo"
+            + " order by t.changeVersion")
+    List<SpotTombstone> findChanged(long since, long upTo, Limit limit);
+
+    // One statement whether or not the id already has a tombstone from an earlier spot with the same id
+    @Modifying
+    @Query(value = "merge into spot_tombstones (spot_id, change_version, deleted_at) key (spot_id)"
+            + " values (:spotId, :changeVersion, :deletedAt)", nativeQuery = true)
+    void upsert(long spotId, long changeVersion, Instant deletedAt);
+
+    @Query("select coalesce(max(t.changeVersion), 0) from SpotTombstone t")
+    long maxChangeVersion();
+}
@@ -1,16 +1,31 @@
 package org.example.repository;
 
+import org.example.dto.UserResponse;
 import org.example.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    // Never selects the password hash
+    String SELECT_RESPONSE = "select new org.example.dto.UserResponse("
+            + "u.id, u.username, u.email, cast(u.role as String)) from User u";
+
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
-}
 
+    @Query(SELECT_RESPONSE)
+    List<UserResponse> findAllResponses();
+
+    @Query(SELECT_RESPONSE + " where u.id = :id")
+    Optional<UserResponse> findResponseById(Long id);
+}
@@ -0,0 +1,42 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Read-through helper for Caffeine caches whose loader blocks on JDBC.
+ * <p>
+ * {@code Cache.get(key, loader)} runs the loader inside {@code ConcurrentHashMap.compute}, that is while
+ * holding a monitor, which pins the carrier thread when requests run on virtual threads. Here only an empty
+ * future is installed under the lock; the caller that installed it runs the loader outside of it, and
+ * concurrent callers for the same key wait on the future instead of loading again.
+ */
+final class AsyncCaches {
+
+    private AsyncCaches() {
+    }
+
+    static <K, V> V get(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> created);
+        if (future == created) {
+            try {
+                created.complete(loader.apply(key));
+            } catch (RuntimeException e) {
+                // Failed futures are dropped from the cache, so the next call loads again
+                created.completeExceptionally(e);
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.dto.SpotResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of single spot lookups, bounded to {@code spot.cache.maximum-size} entries.
+ * Caffeine evicts with W-TinyLFU, so popular spots stay cached even under scans of cold ids.
+ * Besides the standard {@code cache.*} metrics (tag {@code cache=spots}), the hit ratio is published
+ * as {@code cache.hit.ratio}.
+ */
+@Component
+public class SpotCache {
+
+    private final AsyncCache<Long, SpotResponse> cache;
+
+    public SpotCache(@Value("${spot.cache.maximum-size:10000}") long maximumSize, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "spots");
+        Gauge.builder("cache.hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+                .tag("cache", "spots")
+                .description("Ratio of lookups served from the cache")
+                .register(meterRegistry);
+    }
+
+    public SpotResponse get(Long id, Function<Long, SpotResponse> loader) {
+        return AsyncCaches.get(cache, id, loader);
+    }
+
+    // Returns the cached spot without loading it, or null
+    public SpotResponse getIfPresent(Long id) {
+        CompletableFuture<SpotResponse> spot = cache.getIfPresent(id);
+        return spot != null && spot.isDone() && !spot.isCompletedExceptionally() ? spot.join() : null;
+    }
+
+    public void put(SpotResponse spot) {
+        cache.put(spot.getId(), CompletableFuture.completedFuture(spot));
+    }
+
+    public void invalidate(Long id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.model.Spot;
+import org.example.repository.SpotRepository;
+import org.example.repository.SpotTombstoneRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.LongFunction;
+
+/**
+ * Hands out the change versions stamped on spots and tombstones. Versions are allocated in memory, like the
+ * spot indexes this assumes a single instance, and resume after the highest version found in the database.
+ * <p>
+ * A version is taken before its transaction commits, so two writes can commit out of order. A client that
+ * synced up to version 12 while 11 was still in flight would never see 11: {@link #committedUpTo()} stops
+ * below the oldest write still in flight.
+ */
+@Component
+@RequiredArgsConstructor
+public class SpotChangeVersions {
+
+    private final SpotRepository spotRepository;
+    private final SpotTombstoneRepository tombstoneRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Guarded by this
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    private long next;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void initialize() {
+        if (next == 0) {
+            next = Math.max(spotRepository.maxChangeVersion(), tombstoneRepository.maxChangeVersion()) + 1;
+        }
+    }
+
+    /**
+     * Runs {@code write} in a new transaction with {@code count} consecutive versions starting at the given one.
+     * Must not be called from an enclosing transaction: the versions are released once this one commits.
+     */
+    public <T> T write(int count, LongFunction<T> write) {
+        // Joining it would release the versions before the enclosing transaction commits
+        Assert.state(!TransactionSynchronizationManager.isActualTransactionActive(),
+                "Change versions must be written in their own transaction, not from an enclosing one");
+        long first = allocate(count);
+        try {
+            return transactionTemplate.execute(status -> write.apply(first));
+        } finally {
+            release(first);
+        }
+    }
+
+    // Stamps consecutive versions on spots written together
+    static void stamp(List<Spot> spots, long firstVersion) {
+        Instant now = Instant.now();
+        for (int i = 0; i < spots.size(); i++) {
+            spots.get(i).setChangeVersion(firstVersion + i);
+            spots.get(i).setUpdatedAt(now);
+        }
+    }
+
+    // Highest version below which every write has committed or rolled back
+    public synchronized long committedUpTo() {
+        initialize();
+        return inFlight.isEmpty() ? next - 1 : inFlight.first() - 1;
+    }
+
+    private synchronized long allocate(int count) {
+        initialize();
+        long first = next;
+        next += count;
+        inFlight.add(first);
+        return first;
+    }
+
+    private synchronized void release(long first) {
+        inFlight.remove(first);
+    }
+}
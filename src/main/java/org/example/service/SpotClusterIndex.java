@@ -0,0 +1,229 @@
+package org.example.service;
+
+import org.example.dto.SpotCluster;
+import org.example.dto.SpotResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+
+/**
+ * Multi-resolution grid of spot counts for map views. Level {@code L} cuts the world into
+ * {@code 2^L x 2^L} cells (360/2^L degrees of longitude by 180/2^L degrees of latitude); every level keeps,
+ * per non-empty cell, the number of spots, the sum of their coordinates (for the centroid) and a few sample
+ * ids. Cells of the finest level keep every id, so that a cell losing a sample refills it from the samples of its
+ * four sub-cells, updated just before. A write updates one cell per level, and a query reads a single level chosen so that the viewport
+ * covers a bounded number of cells, whatever the zoom.
+ */
+@Component
+public class SpotClusterIndex implements SpotIndex {
+
+    // A 256 px map tile at zoom z spans 4 cells of level z + 2, i.e. clusters about 64 px apart
+    static final int LEVEL_OFFSET = 2;
+    static final int MAX_CELLS_PER_QUERY = 4096;
+
+    private final int maxLevel;
+    private final int sampleSize;
+
+    private final Map<Long, Point> points = new ConcurrentHashMap<>();
+    private final List<Map<Long, Cell>> levels = new ArrayList<>();
+
+    public SpotClusterIndex(@Value("${spot.clusters.max-level:16}") int maxLevel,
+                            @Value("${spot.clusters.sample-size:3}") int sampleSize) {
+        if (maxLevel < 0 || maxLevel > 24) {
+            throw new IllegalArgumentException("spot.clusters.max-level must be between 0 and 24");
+        }
+        this.maxLevel = maxLevel;
+        this.sampleSize = Math.max(0, sampleSize);
+        for (int level = 0; level <= maxLevel; level++) {
+            levels.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        points.clear();
+        levels.forEach(Map::clear);
+    }
+
+    @Override
+    public synchronized void put(SpotResponse spot) {
+        remove(spot.getId());
+        if (spot.getLatitude() == null || spot.getLongitude() == null) {
+            return;
+        }
+        Point point = new Point(spot.getLatitude(), spot.getLongitude());
+        points.put(spot.getId(), point);
+        for (int level = 0; level <= maxLevel; level++) {
+            int capacity = sampleCapacity(level);
+            levels.get(level).compute(cellOf(level, point.latitude(), point.longitude()),
+                    (key, cell) -> cell == null
+                            ? Cell.EMPTY.plus(spot.getId(), point, capacity)
+                            : cell.plus(spot.getId(), point, capacity));
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long id) {
+        Point point = points.remove(id);
+        if (point == null) {
+            return;
+        }
+        // Finest level first: a coarser cell refills its samples from the sub-cells already updated
+        for (int level = maxLevel; level >= 0; level--) {
+            int cellLevel = level;
+            // Returning null drops cells that become empty
+            levels.get(level).computeIfPresent(cellOf(level, point.latitude(), point.longitude()), (key, cell) -> {
+                Cell remaining = cell.minus(id, point);
+                if (remaining == null || remaining.samples().length >= Math.min(remaining.count(), sampleSize)) {
+                    return remaining;
+                }
+                return remaining.refill(subCellSamples(cellLevel, key), sampleSize);
+            });
+        }
+    }
+
+    private int sampleCapacity(int level) {
+        return level == maxLevel ? Integer.MAX_VALUE : sampleSize;
+    }
+
+    private long[] subCellSamples(int level, long cell) {
+        int cellsPerSide = 1 << level;
+        long latIdx = cell / cellsPerSide;
+        long lonIdx = cell % cellsPerSide;
+        Map<Long, Cell> subCells = levels.get(level + 1);
+        return LongStream.of(
+                        (2 * latIdx) * 2L * cellsPerSide + 2 * lonIdx,
+                        (2 * latIdx) * 2L * cellsPerSide + 2 * lonIdx + 1,
+                        (2 * latIdx + 1) * 2L * cellsPerSide + 2 * lonIdx,
+                        (2 * latIdx + 1) * 2L * cellsPerSide + 2 * lonIdx + 1)
+                .mapToObj(subCells::get)
+                .filter(Objects::nonNull)
+                .flatMapToLong(subCell -> Arrays.stream(subCell.samples()))
+                .toArray();
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Returns the clusters of the spots inside the bounding box, as seen at the given map zoom. A box with
+     * {@code minLon > maxLon} crosses the antimeridian.
+     */
+    public List<SpotCluster> clusters(double minLat, double minLon, double maxLat, double maxLon, int zoom,
+                                      boolean withSamples) {
+        int level = Math.min(maxLevel, Math.max(0, zoom + LEVEL_OFFSET));
+        while (level > 0 && cellCount(level, minLat, minLon, maxLat, maxLon) > MAX_CELLS_PER_QUERY) {
+            level--;
+        }
+
+        int cellsPerSide = 1 << level;
+        int firstLat = latIndex(level, minLat);
+        int lastLat = latIndex(level, maxLat);
+        Span lon = lonSpan(level, minLon, maxLon);
+
+        Map<Long, Cell> cells = levels.get(level);
+        List<SpotCluster> clusters = new ArrayList<>();
+        for (int latIdx = firstLat; latIdx <= lastLat; latIdx++) {
+            for (int i = 0; i < lon.count(); i++) {
+                Cell cell = cells.get((long) latIdx * cellsPerSide + (lon.first() + i) % cellsPerSide);
+                if (cell != null) {
+                    clusters.add(cell.toCluster(withSamples ? sampleSize : 0));
+                }
+            }
+        }
+        clusters.sort(Comparator.comparingLong(SpotCluster::getCount).reversed());
+        return clusters;
+    }
+
+    private static long cellCount(int level, double minLat, double minLon, double maxLat, double maxLon) {
+        long latSpan = latIndex(level, maxLat) - latIndex(level, minLat) + 1L;
+        return latSpan * lonSpan(level, minLon, maxLon).count();
+    }
+
+    // Columns covered by [minLon, maxLon], wrapping past 180 when minLon > maxLon
+    private static Span lonSpan(int level, double minLon, double maxLon) {
+        int cellsPerSide = 1 << level;
+        int first = Math.min(cellsPerSide - 1, Math.max(0, (int) Math.floor((minLon + 180.0) / 360.0 * cellsPerSide)));
+        int last = Math.min(cellsPerSide - 1, Math.max(0, (int) Math.floor((maxLon + 180.0) / 360.0 * cellsPerSide)));
+        if (minLon <= maxLon) {
+            return new Span(first, last - first + 1);
+        }
+        return new Span(first, first == last ? cellsPerSide : cellsPerSide - first + last + 1);
+    }
+
+    private static long cellOf(int level, double latitude, double longitude) {
+        return (long) latIndex(level, latitude) * (1 << level) + lonIndex(level, longitude);
+    }
+
+    private static int latIndex(int level, double latitude) {
+        int cellsPerSide = 1 << level;
+        return Math.min(cellsPerSide - 1, Math.max(0, (int) Math.floor((latitude + 90.0) / 180.0 * cellsPerSide)));
+    }
+
+    private static int lonIndex(int level, double longitude) {
+        int cellsPerSide = 1 << level;
+        return Math.floorMod((int) Math.floor((longitude + 180.0) / 360.0 * cellsPerSide), cellsPerSide);
+    }
+
+    private record Point(double latitude, double longitude) {
+    }
+
+    private record Span(int first, int count) {
+    }
+
+    // Immutable so that readers never see a half-updated cell
+    private record Cell(long count, double latitudeSum, double longitudeSum, long[] samples) {
+
+        static final Cell EMPTY = new Cell(0, 0, 0, new long[0]);
+
+        Cell plus(Long id, Point point, int capacity) {
+            long[] newSamples = samples.length < capacity ? append(samples, id) : samples;
+            return new Cell(count + 1, latitudeSum + point.latitude(), longitudeSum + point.longitude(), newSamples);
+        }
+
+        Cell minus(Long id, Point point) {
+            if (count <= 1) {
+                return null;
+            }
+            long[] newSamples = Arrays.stream(samples).filter(sample -> sample != id).toArray();
+            return new Cell(count - 1, latitudeSum - point.latitude(), longitudeSum - point.longitude(), newSamples);
+        }
+
+        Cell refill(long[] candidates, int sampleSize) {
+            long[] newSamples = samples;
+            for (long candidate : candidates) {
+                if (newSamples.length >= sampleSize) {
+                    break;
+                }
+                if (Arrays.stream(newSamples).noneMatch(sample -> sample == candidate)) {
+                    newSamples = append(newSamples, candidate);
+                }
+            }
+            return new Cell(count, latitudeSum, longitudeSum, newSamples);
+        }
+
+        SpotCluster toCluster(int sampleLimit) {
+            return SpotCluster.builder()
+                    .latitude(latitudeSum / count)
+                    .longitude(longitudeSum / count)
+                    .count(count)
+                    .sampleIds(Arrays.stream(samples).limit(sampleLimit).boxed().toList())
+                    .build();
+        }
+
+        private static long[] append(long[] values, long value) {
+            long[] copy = Arrays.copyOf(values, values.length + 1);
+            copy[values.length] = value;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.service;
+
+import org.example.dto.SpotResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory grid index over spot coordinates. The world is cut into square cells of
+ * {@code spot.geo-index.cell-size-degrees}; a radius query only visits the cells overlapping
+ * the bounding box of the search circle.
+ */
+@Component
+public class SpotGeoIndex implements SpotIndex {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    private final double cellSize;
+    private final int latCells;
+    private final int lonCells;
+
+    private final Map<Long, Point> points = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    public SpotGeoIndex(@Value("${spot.geo-index.cell-size-degrees:0.1}") double cellSize) {
+        if (cellSize <= 0 || cellSize > 90) {
+            throw new IllegalArgumentException("spot.geo-index.cell-size-degrees must be in (0, 90]");
+        }
+        this.cellSize = cellSize;
+        this.latCells = (int) Math.ceil(180.0 / cellSize);
+        this.lonCells = (int) Math.ceil(360.0 / cellSize);
+    }
+
+    @Override
+    public synchronized void clear() {
+        points.clear();
+        cells.clear();
+    }
+
+    @Override
+    public void put(SpotResponse spot) {
+        put(spot.getId(), spot.getLatitude(), spot.getLongitude());
+    }
+
+    public synchronized void put(Long id, Double latitude, Double longitude) {
+        remove(id);
+        if (latitude == null || longitude == null) {
+            return;
+        }
+        long cell = cellOf(latitude, longitude);
+        points.put(id, new Point(latitude, longitude, cell));
+        cells.computeIfAbsent(cell, k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    @Override
+    public synchronized void remove(Long id) {
+        Point previous = points.remove(id);
+        if (previous == null) {
+            return;
+        }
+        Set<Long> ids = cells.get(previous.cell());
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                cells.remove(previous.cell());
+            }
+        }
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Returns the ids of the spots within {@code radiusKm} of the given point, closest first.
+     */
+    public List<Long> nearby(double latitude, double longitude, double radiusKm, int limit) {
+        PriorityQueue<Hit> closest = new PriorityQueue<>(Comparator.comparingDouble(Hit::distanceKm).reversed());
+
+        double dLat = radiusKm / KM_PER_DEGREE;
+        double minLat = Math.max(-90.0, latitude - dLat);
+        double maxLat = Math.min(90.0, latitude + dLat);
+        double maxAbsLat = Math.max(Math.abs(minLat), Math.abs(maxLat));
+        // Past the poles, or when the circle wraps around the globe, every longitude is a candidate.
+        double dLon = maxAbsLat >= 90.0 ? 180.0 : dLat / Math.cos(Math.toRadians(maxAbsLat));
+
+        int firstLat = latIndex(minLat);
+        int lastLat = latIndex(maxLat);
+        int firstLon;
+        int lonSpan;
+        if (dLon >= 180.0) {
+            firstLon = 0;
+            lonSpan = lonCells;
+        } else {
+            firstLon = (int) Math.floor((longitude - dLon + 180.0) / cellSize);
+            lonSpan = Math.min(lonCells, (int) Math.floor((longitude + dLon + 180.0) / cellSize) - firstLon + 1);
+        }
+
+        long cellCount = (long) (lastLat - firstLat + 1) * lonSpan;
+        if (cellCount > points.size()) {
+            // Very large radius: walking the points is cheaper than probing mostly empty cells.
+            points.forEach((id, point) -> offer(closest, id, point, latitude, longitude, radiusKm, limit));
+        } else {
+            for (int latIdx = firstLat; latIdx <= lastLat; latIdx++) {
+                for (int i = 0; i < lonSpan; i++) {
+                    Set<Long> ids = cells.get(key(latIdx, Math.floorMod(firstLon + i, lonCells)));
+                    if (ids == null) {
+                        continue;
+                    }
+                    for (Long id : ids) {
+                        Point point = points.get(id);
+                        if (point != null) {
+                            offer(closest, id, point, latitude, longitude, radiusKm, limit);
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(closest);
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm).thenComparing(Hit::id));
+        return hits.stream().map(Hit::id).toList();
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static void offer(PriorityQueue<Hit> closest, Long id, Point point,
+                              double latitude, double longitude, double radiusKm, int limit) {
+        double distance = distanceKm(latitude, longitude, point.latitude(), point.longitude());
+        if (distance > radiusKm) {
+            return;
+        }
+        if (closest.size() < limit) {
+            closest.add(new Hit(id, distance));
+        } else if (distance < closest.peek().distanceKm()) {
+            closest.poll();
+            closest.add(new Hit(id, distance));
+        }
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        int lonIdx = Math.floorMod((int) Math.floor((longitude + 180.0) / cellSize), lonCells);
+        return key(latIndex(latitude), lonIdx);
+    }
+
+    private int latIndex(double latitude) {
+        return Math.min(latCells - 1, Math.max(0, (int) Math.floor((latitude + 90.0) / cellSize)));
+    }
+
+    private long key(int latIdx, int lonIdx) {
+        return (long) latIdx * lonCells + lonIdx;
+    }
+
+    private record Point(double latitude, double longitude, long cell) {
+    }
+
+    private record Hit(Long id, double distanceKm) {
+    }
+}
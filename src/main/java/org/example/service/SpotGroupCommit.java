@@ -0,0 +1,215 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.exception.ServiceOverloadedException;
+import org.example.model.Spot;
+import org.example.repository.SpotRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in group commit for spot creation ({@code spot.group-commit.enabled}). Concurrent creations are queued and
+ * inserted together by a single committer thread: a batch takes what is queued, up to {@code max-batch} rows,
+ * waiting at most {@code max-delay} for more, and commits it in one transaction with JDBC batching. A caller
+ * returns once its batch has committed, so a created spot is exactly as durable as with a transaction of its own.
+ * When a batch fails, its rows are retried one by one and only the caller of a failing row gets the error.
+ * <p>
+ * At most {@code queue-capacity} creations wait; beyond that they fail with {@link ServiceOverloadedException}.
+ * On shutdown the batch being committed is finished, never interrupted; only creations still queued fail.
+ * Metrics: {@code spot.group-commit.queue}, {@code spot.group-commit.batch} (rows per transaction) and
+ * {@code spot.group-commit.rejected}.
+ */
+@Slf4j
+@Component
+public class SpotGroupCommit implements AutoCloseable {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+    // Queued by close() to wake an idle committer
+    private static final Pending SHUTDOWN = new Pending(null, new CompletableFuture<>());
+
+    private final SpotRepository spotRepository;
+    private final SpotChangeVersions changeVersions;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Pending> queue;
+    private final Thread committer;
+
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+    private volatile boolean closed;
+
+    public SpotGroupCommit(SpotRepository spotRepository,
+                           SpotChangeVersions changeVersions,
+                           @Value("${spot.group-commit.enabled:false}") boolean enabled,
+                           @Value("${spot.group-commit.max-batch:50}") int maxBatch,
+                           @Value("${spot.group-commit.max-delay:2ms}") Duration maxDelay,
+                           @Value("${spot.group-commit.queue-capacity:10000}") int queueCapacity,
+                           MeterRegistry meterRegistry) {
+        if (maxBatch < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("spot.group-commit.max-batch and queue-capacity must be positive");
+        }
+        this.spotRepository = spotRepository;
+        this.changeVersions = changeVersions;
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("spot.group-commit.queue", queue, BlockingQueue::size)
+                .description("Spot creations waiting for the next group commit")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("spot.group-commit.batch")
+                .description("Spots inserted per group commit transaction")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("spot.group-commit.rejected")
+                .description("Spot creations refused because the group commit queue was full")
+                .register(meterRegistry);
+
+        this.committer = enabled ? Thread.ofPlatform().name("spot-group-commit").daemon().start(this::run) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Inserts the spot with the next group commit and returns it once committed, with its id and versions set.
+     */
+    public Spot insert(Spot spot) {
+        if (!enabled) {
+            throw new IllegalStateException("spot.group-commit.enabled is false");
+        }
+        Pending pending = new Pending(spot, new CompletableFuture<>());
+        if (closed || !queue.offer(pending)) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Too many spot creations in progress, please retry later",
+                    RETRY_AFTER);
+        }
+        if (closed && queue.remove(pending)) {
+            // close() may have drained the queue before this offer; if it was taken, its batch completes it
+            fail(List.of(pending));
+        }
+
+        try {
+            return pending.committed().get();
+        } catch (InterruptedException e) {
+            // The spot may still be committed with its batch
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the spot to be committed", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (committer != null) {
+            // A full queue means the committer is not waiting: it stops after its current batch anyway
+            queue.offer(SHUTDOWN);
+            try {
+                if (!committer.join(SHUTDOWN_TIMEOUT)) {
+                    log.warn("Spot group commit still committing after {}", SHUTDOWN_TIMEOUT);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Pending> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.remove(SHUTDOWN);
+        fail(pending);
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (!closed) {
+            try {
+                Pending first = queue.take();
+                if (first == SHUTDOWN) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                queue.drainTo(batch, maxBatch - batch.size());
+                while (batch.size() < maxBatch) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null || next == SHUTDOWN) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+                batch.remove(SHUTDOWN);
+                commit(batch);
+            } catch (InterruptedException e) {
+                fail(batch);
+                return;
+            } catch (RuntimeException e) {
+                // Keep the committer alive; commit() already completed every caller it could
+                log.error("Spot group commit failed", e);
+                fail(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        batchSizes.record(batch.size());
+        try {
+            insert(batch.stream().map(Pending::spot).toList());
+            batch.forEach(pending -> pending.committed().complete(pending.spot()));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).committed().completeExceptionally(e);
+                return;
+            }
+            // Retry row by row to isolate the rows the database rejects
+            for (Pending pending : batch) {
+                Spot spot = pending.spot();
+                spot.setId(null);
+                spot.setVersion(null);
+                try {
+                    insert(List.of(spot));
+                    pending.committed().complete(spot);
+                } catch (RuntimeException rowError) {
+                    pending.committed().completeExceptionally(rowError);
+                }
+            }
+        }
+    }
+
+    private void insert(List<Spot> spots) {
+        changeVersions.write(spots.size(), first -> {
+            SpotChangeVersions.stamp(spots, first);
+            return spotRepository.saveAll(spots);
+        });
+    }
+
+    private static void fail(List<Pending> pending) {
+        pending.forEach(p -> p.committed().completeExceptionally(
+                new ServiceOverloadedException("Spot creation was interrupted by shutdown", RETRY_AFTER)));
+    }
+
+    private record Pending(Spot spot, CompletableFuture<Spot> committed) {
+    }
+}
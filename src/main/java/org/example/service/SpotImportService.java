@@ -0,0 +1,178 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.dto.SpotImportResponse;
+import org.example.dto.SpotRequest;
+import org.example.event.SpotChangedEvent;
+import org.example.model.Spot;
+import org.example.repository.SpotRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk insertion of spots read from a JSON array or an NDJSON stream. Rows are validated one by one
+ * and inserted {@code spot.import.batch-size} at a time, each chunk in its own transaction, so JDBC
+ * batching applies. Invalid rows, and rows rejected by the database, are reported without aborting
+ * the rest of the import.
+ */
+@Service
+public class SpotImportService {
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final SpotRepository spotRepository;
+    private final EntityManager entityManager;
+    private final SpotChangeVersions changeVersions;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public SpotImportService(SpotRepository spotRepository,
+                             EntityManager entityManager,
+                             SpotChangeVersions changeVersions,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${spot.import.batch-size:500}") int batchSize) {
+        this.spotRepository = spotRepository;
+        this.entityManager = entityManager;
+        this.changeVersions = changeVersions;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    public SpotImportResponse importSpots(InputStream body) throws IOException {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        SpotImportResponse result = new SpotImportResponse();
+        List<Row> batch = new ArrayList<>(batchSize);
+
+        // Iterates over the elements of a root-level array as well as over newline-delimited values
+        try (MappingIterator<SpotRequest> rows = objectMapper.readerFor(SpotRequest.class).readValues(body)) {
+            int index = 0;
+            while (true) {
+                SpotRequest request;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    request = rows.nextValue();
+                } catch (JsonParseException e) {
+                    // The stream cannot be resynchronised after a syntax error
+                    addError(result, index, "Malformed JSON: " + e.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException e) {
+                    addError(result, index++, "Invalid row: " + e.getOriginalMessage());
+                    continue;
+                }
+
+                String violations = validate(request);
+                if (violations != null) {
+                    addError(result, index++, violations);
+                    continue;
+                }
+
+                batch.add(new Row(index++, toEntity(request, username)));
+                if (batch.size() == batchSize) {
+                    insert(batch, result);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            insert(batch, result);
+        }
+        return result;
+    }
+
+    private void insert(List<Row> batch, SpotImportResponse result) {
+        List<Spot> spots = batch.stream().map(Row::spot).toList();
+        try {
+            changeVersions.write(spots.size(), first -> {
+                SpotChangeVersions.stamp(spots, first);
+                spotRepository.saveAllAndFlush(spots);
+                entityManager.clear();
+                return null;
+            });
+            spots.forEach(spot -> published(spot, result));
+        } catch (DataAccessException e) {
+            // Retry row by row to isolate the rows the database rejects
+            entityManager.clear();
+            for (Row row : batch) {
+                Spot spot = row.spot();
+                spot.setId(null);
+                spot.setVersion(null);
+                try {
+                    changeVersions.write(1, version -> {
+                        SpotChangeVersions.stamp(List.of(spot), version);
+                        return spotRepository.saveAndFlush(spot);
+                    });
+                    published(spot, result);
+                } catch (DataAccessException rowError) {
+                    addError(result, row.index(), "Insert failed: "
+                            + NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+        }
+    }
+
+    private void published(Spot spot, SpotImportResponse result) {
+        result.setImported(result.getImported() + 1);
+        eventPublisher.publishEvent(SpotChangedEvent.created(SpotService.mapToResponse(spot), spot.getChangeVersion(),
+                spot.getUpdatedAt()));
+    }
+
+    private String validate(SpotRequest request) {
+        if (request == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<SpotRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static void addError(SpotImportResponse result, int index, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new SpotImportResponse.RowError(index, message));
+        }
+    }
+
+    private static Spot toEntity(SpotRequest request, String username) {
+        return Spot.builder()
+                .name(request.getName())
+                .description(request.getDescription())
+                .location(request.getLocation())
+                .latitude(request.getLatitude())
+                .longitude(request.getLongitude())
+                .createdBy(username)
+                .build();
+    }
+
+    private record Row(int index, Spot spot) {
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.service;
+
+import org.example.dto.SpotResponse;
+
+/**
+ * In-memory structure derived from the spots table. Implementations are rebuilt at startup and kept
+ * in sync with writes by {@link SpotIndexer}.
+ */
+public interface SpotIndex {
+
+    void clear();
+
+    void put(SpotResponse spot);
+
+    void remove(Long id);
+}
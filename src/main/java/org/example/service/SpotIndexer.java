@@ -0,0 +1,72 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.event.SpotChangedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+@RequiredArgsConstructor
+public class SpotIndexer {
+
+    private final SpotService spotService;
+    private final List<SpotIndex> indexes;
+
+    // Changes are applied under the read lock; a rebuild takes the write lock only to start and to finish
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Changes received while the table is streamed, applied after it; null when no rebuild runs
+    private Queue<SpotChangedEvent> pending;
+
+    // Single pass over the table for all indexes. The server already accepts writes: a spot deleted while it is
+    // streamed could be put back, so the changes received meanwhile are replayed on top of the stream.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pending = new ConcurrentLinkedQueue<>();
+            indexes.forEach(SpotIndex::clear);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            spotService.forEachSpot(spot -> indexes.forEach(index -> index.put(spot)));
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pending.forEach(this::apply);
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @EventListener
+    public void onSpotChanged(SpotChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            } else {
+                apply(event);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(SpotChangedEvent event) {
+        if (event.getType() == SpotChangedEvent.Type.DELETED) {
+            indexes.forEach(index -> index.remove(event.getSpotId()));
+        } else {
+            indexes.forEach(index -> index.put(event.getSpot()));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.service;
+
+import org.example.dto.SpotResponse;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Trigram inverted index over the name, location and description of the spots. Words are lower-cased,
+ * stripped of accents and padded like pg_trgm ({@code "  word "}), so short prefixes and typos still match.
+ * A spot matches when it contains at least half of the query trigrams; matches are ranked by the sum of the
+ * weights of the fields each trigram was found in (name &gt; location &gt; description).
+ */
+@Component
+public class SpotSearchIndex implements SpotIndex {
+
+    static final int MAX_QUERY_LENGTH = 200;
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int LOCATION_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double MIN_MATCH_RATIO = 0.5;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // trigram -> (spot id -> weight of the best field containing the trigram)
+    private final Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> trigramsById = new ConcurrentHashMap<>();
+
+    @Override
+    public synchronized void clear() {
+        postings.clear();
+        trigramsById.clear();
+    }
+
+    @Override
+    public synchronized void put(SpotResponse spot) {
+        remove(spot.getId());
+
+        Map<String, Integer> weights = new HashMap<>();
+        addField(weights, spot.getName(), NAME_WEIGHT);
+        addField(weights, spot.getLocation(), LOCATION_WEIGHT);
+        addField(weights, spot.getDescription(), DESCRIPTION_WEIGHT);
+        if (weights.isEmpty()) {
+            return;
+        }
+
+        weights.forEach((trigram, weight) ->
+                postings.computeIfAbsent(trigram, k -> new ConcurrentHashMap<>()).put(spot.getId(), weight));
+        trigramsById.put(spot.getId(), weights.keySet());
+    }
+
+    @Override
+    public synchronized void remove(Long id) {
+        Set<String> trigrams = trigramsById.remove(id);
+        if (trigrams == null) {
+            return;
+        }
+        for (String trigram : trigrams) {
+            Map<Long, Integer> ids = postings.get(trigram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of the best matching spots, most relevant first.
+     */
+    public List<Long> search(String query, int limit) {
+        String text = query.length() > MAX_QUERY_LENGTH ? query.substring(0, MAX_QUERY_LENGTH) : query;
+        Set<String> queryTrigrams = trigrams(text);
+        if (queryTrigrams.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, int[]> matches = new HashMap<>(); // id -> {matched trigrams, score}
+        for (String trigram : queryTrigrams) {
+            Map<Long, Integer> ids = postings.get(trigram);
+            if (ids == null) {
+                continue;
+            }
+            ids.forEach((id, weight) -> {
+                int[] match = matches.computeIfAbsent(id, k -> new int[2]);
+                match[0]++;
+                match[1] += weight;
+            });
+        }
+
+        int minMatched = (int) Math.ceil(queryTrigrams.size() * MIN_MATCH_RATIO);
+        Comparator<Hit> byRelevance = Comparator.comparingInt(Hit::score)
+                .thenComparing(Hit::id, Comparator.reverseOrder());
+        PriorityQueue<Hit> best = new PriorityQueue<>(byRelevance);
+        matches.forEach((id, match) -> {
+            if (match[0] < minMatched) {
+                return;
+            }
+            Hit hit = new Hit(id, match[1]);
+            if (best.size() < limit) {
+                best.add(hit);
+            } else if (byRelevance.compare(hit, best.peek()) > 0) {
+                best.poll();
+                best.add(hit);
+            }
+        });
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(byRelevance.reversed());
+        return hits.stream().map(Hit::id).toList();
+    }
+
+    public int size() {
+        return trigramsById.size();
+    }
+
+    static Set<String> trigrams(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        if (text == null) {
+            return trigrams;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String word : NON_ALPHANUMERIC.split(normalized)) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    private static void addField(Map<String, Integer> weights, String value, int weight) {
+        for (String trigram : trigrams(value)) {
+            weights.merge(trigram, weight, Math::max);
+        }
+    }
+
+    private record Hit(Long id, int score) {
+    }
+}
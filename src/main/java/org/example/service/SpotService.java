@@ -1,21 +1,63 @@
 package org.example.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
+import org.example.dto.CursorPage;
+import org.example.dto.SpotChange;
+import org.example.dto.SpotChanges;
+import org.example.dto.SpotCluster;
+import org.example.dto.SpotField;
 import org.example.dto.SpotRequest;
 import org.example.dto.SpotResponse;
+import org.example.event.SpotChangedEvent;
+import org.example.exception.PreconditionFailedException;
 import org.example.model.Spot;
+import org.example.model.SpotTombstone;
 import org.example.repository.SpotRepository;
+import org.example.repository.SpotTombstoneRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class SpotService {
 
+    static final int MAX_NEARBY_LIMIT = 500;
+    static final int MAX_PAGE_SIZE = 500;
+    static final int MAX_SEARCH_LIMIT = 100;
+    static final int MAX_ZOOM = 22;
+    static final int MAX_WITHIN_LIMIT = 1000;
+
     private final SpotRepository spotRepository;
+    private final SpotGeoIndex spotGeoIndex;
+    private final SpotSearchIndex spotSearchIndex;
+    private final SpotClusterIndex spotClusterIndex;
+    private final SpotCache spotCache;
+    private final SpotChangeVersions changeVersions;
+    private final SpotGroupCommit groupCommit;
+    private final SpotTombstoneRepository tombstoneRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
 
     public SpotResponse createSpot(SpotRequest request) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -29,44 +71,337 @@ public class SpotService {
                 .createdBy(username)
                 .build();
 
-        spot = spotRepository.save(spot);
-        return mapToResponse(spot);
+        Spot created = groupCommit.isEnabled()
+                ? groupCommit.insert(spot)
+                : changeVersions.write(1, version -> {
+                    spot.setChangeVersion(version);
+                    spot.setUpdatedAt(Instant.now());
+                    return spotRepository.save(spot);
+                });
+        SpotResponse response = mapToResponse(created);
+        spotCache.put(response);
+        eventPublisher.publishEvent(
+                SpotChangedEvent.created(response, created.getChangeVersion(), created.getUpdatedAt()));
+        return response;
     }
 
+    @Transactional(readOnly = true)
     public List<SpotResponse> getAllSpots() {
-        return spotRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return spotRepository.findAllResponses();
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<SpotResponse> getSpotsPage(Long after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        // Fetch one extra row to know whether another page exists
+        List<SpotResponse> spots = spotRepository.findPageAfter(after != null ? after : 0L, Limit.of(limit + 1));
+        List<SpotResponse> items = spots.size() > limit ? spots.subList(0, limit) : spots;
+        Long nextCursor = spots.size() > limit ? items.get(items.size() - 1).getId() : null;
+
+        return CursorPage.<SpotResponse>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // Annotated itself: the call below does not go through the transactional proxy
+    @Transactional(readOnly = true)
+    public CursorPage<SpotResponse> getMySpots(Long after, int limit) {
+        return getSpotsByCreator(SecurityContextHolder.getContext().getAuthentication().getName(), after, limit);
+    }
+
+    /**
+     * Spots created by {@code username}, by id. The total is only counted for the first page, and only when it
+     * does not fit in it, so that following pages stay a single index range scan.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<SpotResponse> getSpotsByCreator(String username, Long after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        List<SpotResponse> spots = spotRepository.findByCreatedByAfter(username, after != null ? after : 0L,
+                Limit.of(limit + 1));
+        boolean hasMore = spots.size() > limit;
+        List<SpotResponse> items = hasMore ? spots.subList(0, limit) : spots;
+        Long total = null;
+        if (after == null) {
+            total = hasMore ? spotRepository.countByCreatedBy(username) : items.size();
+        }
+
+        return CursorPage.<SpotResponse>builder()
+                .items(items)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .total(total)
+                .build();
+    }
+
+    // Sparse variants: only the requested columns are read from the database
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllSpots(Set<SpotField> fields) {
+        return spotRepository.findFields(fields);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Map<String, Object>> getSpotsPage(Long after, int limit, Set<SpotField> fields) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        List<Map<String, Object>> spots = spotRepository.findFieldsPageAfter(fields, after != null ? after : 0L,
+                limit + 1);
+        List<Map<String, Object>> items = spots.size() > limit ? spots.subList(0, limit) : spots;
+        Long nextCursor = spots.size() > limit ? (Long) items.get(items.size() - 1).get(SpotField.ID.property()) : null;
+
+        return CursorPage.<Map<String, Object>>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Streams every spot from the database to {@code action}, {@link SpotRepository#STREAM_FETCH_SIZE} rows per
+     * round trip. Rows are read as DTOs, so nothing accumulates in the persistence context.
+     */
+    @Transactional(readOnly = true)
+    public void forEachSpot(Consumer<SpotResponse> action) {
+        try (Stream<SpotResponse> spots = spotRepository.streamAll()) {
+            spots.forEach(action);
+        }
+    }
+
+    // Writes every spot as one JSON object per line
+    @Transactional(readOnly = true)
+    public void exportSpots(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(SpotResponse.class);
+        try {
+            forEachSpot(spot -> {
+                try {
+                    out.write(writer.writeValueAsBytes(spot));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
     }
 
     public SpotResponse getSpotById(Long id) {
-        Spot spot = spotRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Spot not found with id: " + id));
-        return mapToResponse(spot);
+        return spotCache.get(id, key -> spotRepository.findResponseById(key)
+                .orElseThrow(() -> new RuntimeException("Spot not found with id: " + key)));
     }
 
-    public SpotResponse updateSpot(Long id, SpotRequest request) {
-        Spot spot = spotRepository.findById(id)
+    // A cached spot is projected in memory; a miss reads only the requested columns and is not cached
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSpotById(Long id, Set<SpotField> fields) {
+        SpotResponse cached = spotCache.getIfPresent(id);
+        if (cached != null) {
+            return project(cached, fields);
+        }
+        return spotRepository.findFieldsById(fields, id)
                 .orElseThrow(() -> new RuntimeException("Spot not found with id: " + id));
+    }
+
+    /**
+     * Applies the request in a single conditional {@code update}, without loading the spot first. With an
+     * {@code expectedVersion} (If-Match), a spot modified in the meantime fails with
+     * {@link PreconditionFailedException}.
+     */
+    public SpotResponse updateSpot(Long id, SpotRequest request, Long expectedVersion) {
+        SpotResponse cached = spotCache.getIfPresent(id);
+        Spot spot = changeVersions.write(1, version -> {
+            Instant now = Instant.now();
+            if (spotRepository.updateIfVersion(id, expectedVersion, request, version, now) == 0) {
+                throw notFoundOrModified(id, expectedVersion);
+            }
+            Spot updated = Spot.builder()
+                    .id(id)
+                    .name(request.getName())
+                    .description(request.getDescription())
+                    .location(request.getLocation())
+                    .latitude(request.getLatitude())
+                    .longitude(request.getLongitude())
+                    .changeVersion(version)
+                    .updatedAt(now)
+                    .build();
+            // Only the creator and the new version are not known here; read them back unless the cache and
+            // If-Match already give them
+            if (cached != null && expectedVersion != null) {
+                updated.setCreatedBy(cached.getCreatedBy());
+                updated.setVersion(expectedVersion + 1);
+            } else {
+                SpotResponse current = spotRepository.findResponseById(id)
+                        .orElseThrow(() -> new RuntimeException("Spot not found with id: " + id));
+                updated.setCreatedBy(current.getCreatedBy());
+                updated.setVersion(current.getVersion());
+            }
+            return updated;
+        });
+        SpotResponse response = mapToResponse(spot);
+        spotCache.invalidate(id);
+        eventPublisher.publishEvent(
+                SpotChangedEvent.updated(response, spot.getChangeVersion(), spot.getUpdatedAt()));
+        return response;
+    }
+
+    // The tombstone is written in the same transaction as the delete
+    public void deleteSpot(Long id, Long expectedVersion) {
+        SpotTombstone tombstone = changeVersions.write(1, version -> {
+            if (spotRepository.deleteIfVersion(id, expectedVersion) == 0) {
+                throw notFoundOrModified(id, expectedVersion);
+            }
+            SpotTombstone deleted = SpotTombstone.builder()
+                    .spotId(id)
+                    .changeVersion(version)
+                    .deletedAt(Instant.now())
+                    .build();
+            tombstoneRepository.upsert(id, version, deleted.getDeletedAt());
+            return deleted;
+        });
+        spotCache.invalidate(id);
+        eventPublisher.publishEvent(
+                SpotChangedEvent.deleted(id, tombstone.getChangeVersion(), tombstone.getDeletedAt()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<SpotResponse> getNearbySpots(double latitude, double longitude, double radiusKm, int limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        if (radiusKm <= 0) {
+            throw new IllegalArgumentException("radiusKm must be positive");
+        }
+        if (limit < 1 || limit > MAX_NEARBY_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_NEARBY_LIMIT);
+        }
 
-        spot.setName(request.getName());
-        spot.setDescription(request.getDescription());
-        spot.setLocation(request.getLocation());
-        spot.setLatitude(request.getLatitude());
-        spot.setLongitude(request.getLongitude());
+        return findAllInOrder(spotGeoIndex.nearby(latitude, longitude, radiusKm, limit));
+    }
 
-        spot = spotRepository.save(spot);
-        return mapToResponse(spot);
+    @Transactional(readOnly = true)
+    public List<SpotResponse> searchSpots(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+
+        return findAllInOrder(spotSearchIndex.search(query, limit));
     }
 
-    public void deleteSpot(Long id) {
-        if (!spotRepository.existsById(id)) {
-            throw new RuntimeException("Spot not found with id: " + id);
+    public List<SpotCluster> getClusters(double minLat, double minLon, double maxLat, double maxLon, int zoom,
+                                         boolean withSamples) {
+        validateBoundingBox(minLat, minLon, maxLat, maxLon);
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("zoom must be between 0 and " + MAX_ZOOM);
         }
-        spotRepository.deleteById(id);
+
+        return spotClusterIndex.clusters(minLat, minLon, maxLat, maxLon, zoom, withSamples);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SpotResponse> getSpotsWithin(double minLat, double minLon, double maxLat, double maxLon, int limit) {
+        validateBoundingBox(minLat, minLon, maxLat, maxLon);
+        if (limit < 1 || limit > MAX_WITHIN_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_WITHIN_LIMIT);
+        }
+
+        return minLon <= maxLon
+                ? spotRepository.findWithin(minLat, minLon, maxLat, maxLon, Limit.of(limit))
+                : spotRepository.findWithinAcrossAntimeridian(minLat, minLon, maxLat, maxLon, Limit.of(limit));
+    }
+
+    /**
+     * Creates, updates and deletes committed after version {@code since}, oldest first. Spots and tombstones are
+     * read up to {@code limit + 1} each and merged by version; the returned version is the cursor for the next call.
+     */
+    @Transactional(readOnly = true)
+    public SpotChanges getChanges(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        long upTo = changeVersions.committedUpTo();
+        if (since >= upTo) {
+            return SpotChanges.builder().changes(List.of()).version(since).build();
+        }
+
+        List<SpotChange> changes = new ArrayList<>();
+        spotRepository.findChanged(since, upTo, Limit.of(limit + 1)).forEach(spot -> changes.add(SpotChange.builder()
+                .type(SpotChange.Type.UPSERT)
+                .version(spot.getChangeVersion())
+                .id(spot.getId())
+                .at(spot.getUpdatedAt())
+                .spot(mapToResponse(spot))
+                .build()));
+        tombstoneRepository.findChanged(since, upTo, Limit.of(limit + 1)).forEach(tombstone -> changes.add(
+                SpotChange.builder()
+                        .type(SpotChange.Type.DELETE)
+                        .version(tombstone.getChangeVersion())
+                        .id(tombstone.getSpotId())
+                        .at(tombstone.getDeletedAt())
+                        .build()));
+        changes.sort(Comparator.comparingLong(SpotChange::getVersion));
+
+        if (changes.size() > limit) {
+            List<SpotChange> page = changes.subList(0, limit);
+            return SpotChanges.builder()
+                    .changes(page)
+                    .version(page.get(limit - 1).getVersion())
+                    .hasMore(true)
+                    .build();
+        }
+        return SpotChanges.builder().changes(changes).version(upTo).build();
+    }
+
+    // A conditional write matched no row: tell a missing spot from a stale If-Match
+    private RuntimeException notFoundOrModified(Long id, Long expectedVersion) {
+        if (expectedVersion != null && spotRepository.existsById(id)) {
+            return new PreconditionFailedException("Spot " + id + " has been modified since version " + expectedVersion);
+        }
+        return new RuntimeException("Spot not found with id: " + id);
+    }
+
+    // minLon > maxLon describes a box crossing the antimeridian
+    private static void validateBoundingBox(double minLat, double minLon, double maxLat, double maxLon) {
+        if (minLat < -90 || maxLat > 90 || minLat > maxLat) {
+            throw new IllegalArgumentException("Invalid latitude range: " + minLat + ", " + maxLat);
+        }
+        if (minLon < -180 || minLon > 180 || maxLon < -180 || maxLon > 180) {
+            throw new IllegalArgumentException("Invalid longitude range: " + minLon + ", " + maxLon);
+        }
+    }
+
+    // Loads the given spots, keeping the order computed by an index
+    private List<SpotResponse> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, SpotResponse> spotsById = spotRepository.findResponsesByIdIn(ids).stream()
+                .collect(Collectors.toMap(SpotResponse::getId, Function.identity()));
+        return ids.stream()
+                .map(spotsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private static Map<String, Object> project(SpotResponse spot, Set<SpotField> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        fields.forEach(field -> values.put(field.property(), field.valueOf(spot)));
+        return values;
     }
 
-    private SpotResponse mapToResponse(Spot spot) {
+    static SpotResponse mapToResponse(Spot spot) {
         return SpotResponse.builder()
                 .id(spot.getId())
                 .name(spot.getName())
@@ -75,6 +410,7 @@ public class SpotService {
                 .latitude(spot.getLatitude())
                 .longitude(spot.getLongitude())
                 .createdBy(spot.getCreatedBy())
+                .version(spot.getVersion())
                 .build();
     }
 }
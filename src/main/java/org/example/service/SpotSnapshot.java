@@ -0,0 +1,148 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.event.SpotChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-serialized JSON of the full spot list, kept in memory with its gzipped form, for {@code GET /api/spots}.
+ * A write only schedules a rebuild: changes within {@code spot.snapshot.rebuild-delay} are coalesced into one
+ * rebuild on a background thread, and readers keep getting the previous snapshot in the meantime.
+ * <p>
+ * Rebuilds are serialized by a {@link ReentrantLock} rather than a monitor, so a virtual thread waiting for the
+ * first snapshot does not pin its carrier; once published, reading the snapshot takes no lock.
+ * <p>
+ * The ETag is a hash of the JSON, so it stays the same across restarts as long as the data does.
+ * Metrics: {@code spot.snapshot.rebuild} and {@code spot.snapshot.bytes} (uncompressed size).
+ */
+@Slf4j
+@Component
+public class SpotSnapshot implements AutoCloseable {
+
+    public record Snapshot(byte[] json, byte[] gzip, String etag) {
+
+        // Strong ETags are per representation, so the gzipped body gets its own
+        public String etag(boolean gzipped) {
+            return gzipped ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag;
+        }
+
+        public byte[] body(boolean gzipped) {
+            return gzipped ? gzip : json;
+        }
+    }
+
+    private final SpotService spotService;
+    private final ObjectMapper objectMapper;
+    private final Duration rebuildDelay;
+    private final Timer rebuildTimer;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "spot-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private volatile Snapshot current;
+
+    public SpotSnapshot(SpotService spotService,
+                        ObjectMapper objectMapper,
+                        @Value("${spot.snapshot.rebuild-delay:100ms}") Duration rebuildDelay,
+                        MeterRegistry meterRegistry) {
+        this.spotService = spotService;
+        this.objectMapper = objectMapper;
+        this.rebuildDelay = rebuildDelay;
+        this.rebuildTimer = Timer.builder("spot.snapshot.rebuild")
+                .description("Time to reload, serialize and compress the spot list snapshot")
+                .register(meterRegistry);
+        Gauge.builder("spot.snapshot.bytes", this, s -> s.current != null ? s.current.json().length : 0)
+                .description("Size of the uncompressed spot list snapshot")
+                .register(meterRegistry);
+    }
+
+    // Built on first use if a request arrives before the application is ready
+    public Snapshot current() {
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            rebuildLock.lock();
+            try {
+                if (current == null) {
+                    rebuild();
+                }
+                snapshot = current;
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            current = rebuildTimer.record(this::build);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onSpotChanged(SpotChangedEvent event) {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::scheduledRebuild, rebuildDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void scheduledRebuild() {
+        // Cleared before loading: a change committed during the load schedules another rebuild
+        rebuildScheduled.set(false);
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Keep serving the previous snapshot; the next change schedules another attempt
+            log.warn("Could not rebuild the spot list snapshot", e);
+        }
+    }
+
+    private Snapshot build() {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(spotService.getAllSpots());
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                out.write(json);
+            }
+            String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+            return new Snapshot(json, gzip.toByteArray(), etag);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the spot list", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.dto.SpotChange;
+import org.example.event.SpotChangedEvent;
+import org.example.exception.ServiceOverloadedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Server-sent events feed of spot changes for {@code GET /api/spots/stream}.
+ * <p>
+ * Writers never wait on subscribers: each {@link SpotChangedEvent} is handed to a single dispatcher thread, which
+ * serializes it once and copies it into the bounded queue ({@code spot.stream.queue-capacity}) of every
+ * subscriber. Subscribers are also registered by the dispatcher, right after their {@code ready} event. Versions
+ * commit out of order and {@code ready} carries {@link SpotChangeVersions#committedUpTo()}, so the dispatcher
+ * keeps the events already dispatched above that version (fewer than {@code queue-capacity}) and replays them to
+ * a new subscriber after {@code ready}; if some were discarded, a {@code resync} follows instead. A subscriber
+ * with pending events is drained by a virtual thread, so an idle subscriber holds no thread and a client that reads slowly only blocks its own sender. When a queue is full,
+ * {@code spot.stream.overflow-policy} applies: {@code DROP} discards the oldest events and then sends a
+ * {@code resync} event, {@code DISCONNECT} closes the stream. Either way the client catches up with
+ * {@code GET /api/spots/changes}.
+ * <p>
+ * Events: {@code ready} on connect and {@code resync}, both carrying the version to sync from, and {@code spot}
+ * (a {@link SpotChange}, with its version as event id). Metrics: {@code spot.stream.subscribers},
+ * {@code spot.stream.dropped} and {@code spot.stream.disconnected}.
+ */
+@Component
+public class SpotStream implements AutoCloseable {
+
+    public enum OverflowPolicy {
+        DROP,
+        DISCONNECT
+    }
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(10);
+
+    private final ObjectMapper objectMapper;
+    private final SpotChangeVersions changeVersions;
+    private final int queueCapacity;
+    private final int maxSubscribers;
+    private final OverflowPolicy overflowPolicy;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Dispatched events above committedUpTo(), for the next subscribers; dispatcher thread only
+    private final Deque<Message> unsettled = new ArrayDeque<>();
+    private long discardedUnsettled;
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "spot-stream-dispatch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("spot-stream-", 0).factory());
+
+    private final Counter dropped;
+    private final Counter disconnected;
+
+    public SpotStream(ObjectMapper objectMapper,
+                      SpotChangeVersions changeVersions,
+                      @Value("${spot.stream.queue-capacity:256}") int queueCapacity,
+                      @Value("${spot.stream.max-subscribers:10000}") int maxSubscribers,
+                      @Value("${spot.stream.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+                      @Value("${spot.stream.heartbeat:30s}") Duration heartbeat,
+                      MeterRegistry meterRegistry) {
+        if (queueCapacity < 1 || maxSubscribers < 1) {
+            throw new IllegalArgumentException("spot.stream.queue-capacity and max-subscribers must be positive");
+        }
+        this.objectMapper = objectMapper;
+        this.changeVersions = changeVersions;
+        this.queueCapacity = queueCapacity;
+        this.maxSubscribers = maxSubscribers;
+        this.overflowPolicy = overflowPolicy;
+
+        Gauge.builder("spot.stream.subscribers", subscribers, Set::size)
+                .description("Open spot change streams")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("spot.stream.dropped")
+                .description("Events dropped because a subscriber's queue was full")
+                .register(meterRegistry);
+        this.disconnected = Counter.builder("spot.stream.disconnected")
+                .description("Subscribers disconnected because their queue was full")
+                .register(meterRegistry);
+
+        // Keeps proxies from closing idle streams and detects clients that went away
+        Set<DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        dispatcher.scheduleAtFixedRate(() -> subscribers.forEach(subscriber -> subscriber.offerIfIdle(ping)),
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe() {
+        // No timeout: the heartbeat fails on dead connections
+        return subscribe(new SseEmitter(0L));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceOverloadedException("Too many open spot streams", RETRY_AFTER);
+        }
+        Subscriber subscriber = new Subscriber(emitter, queueCapacity, overflowPolicy, senders, this::event,
+                dropped, disconnected);
+        emitter.onCompletion(() -> {
+            subscriber.completed();
+            subscribers.remove(subscriber);
+        });
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        // On the dispatcher: ready is the first event, then the changes above it that were already dispatched
+        dispatcher.execute(() -> {
+            long ready = changeVersions.committedUpTo();
+            subscriber.offer(new Message(event("ready", Map.of("version", ready)), null));
+            settle(ready);
+            if (discardedUnsettled > ready) {
+                subscriber.offer(new Message(event("resync", Map.of("version", ready)), null));
+            } else {
+                unsettled.forEach(subscriber::offer);
+            }
+            subscribers.add(subscriber);
+            if (subscriber.isClosed()) {
+                // Completed before registration, so onCompletion could not remove it
+                subscribers.remove(subscriber);
+            }
+        });
+        return emitter;
+    }
+
+    @EventListener
+    public void onSpotChanged(SpotChangedEvent event) {
+        try {
+            dispatcher.execute(() -> dispatch(event));
+        } catch (RejectedExecutionException e) {
+            // Closed: a write finishing during shutdown must not fail because of the stream
+        }
+    }
+
+    private void dispatch(SpotChangedEvent event) {
+        long committed = changeVersions.committedUpTo();
+        settle(committed);
+        boolean unsettledVersion = event.getVersion() != null && event.getVersion() > committed;
+        if (subscribers.isEmpty() && !unsettledVersion) {
+            return;
+        }
+        Message message = new Message(SseEmitter.event()
+                .id(String.valueOf(event.getVersion()))
+                .name("spot")
+                .data(json(toChange(event)), MediaType.APPLICATION_JSON)
+                .build(), event.getVersion());
+        if (unsettledVersion) {
+            unsettled.addLast(message);
+            // Leaves room for the ready event in the queue of a new subscriber
+            if (unsettled.size() > queueCapacity - 1) {
+                discardedUnsettled = Math.max(discardedUnsettled, unsettled.removeFirst().version());
+            }
+        }
+        subscribers.forEach(subscriber -> subscriber.offer(message));
+    }
+
+    // Forgets the events that a ready event from now on covers
+    private void settle(long committed) {
+        unsettled.removeIf(message -> message.version() <= committed);
+    }
+
+    @Override
+    public void close() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(Subscriber::close);
+        senders.shutdownNow();
+    }
+
+    private Set<DataWithMediaType> event(String name, Object data) {
+        return SseEmitter.event().name(name).data(json(data), MediaType.APPLICATION_JSON).build();
+    }
+
+    private String json(Object data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize stream event", e);
+        }
+    }
+
+    private static SpotChange toChange(SpotChangedEvent event) {
+        return SpotChange.builder()
+                .type(event.getType() == SpotChangedEvent.Type.DELETED ? SpotChange.Type.DELETE : SpotChange.Type.UPSERT)
+                .version(event.getVersion() != null ? event.getVersion() : 0)
+                .id(event.getSpotId())
+                .at(event.getAt())
+                .spot(event.getSpot())
+                .build();
+    }
+
+    // Frame sent as is to every subscriber; version is null for events that can be dropped without a resync
+    record Message(Set<DataWithMediaType> frame, Long version) {
+    }
+
+    static final class Subscriber {
+
+        private static final long NO_RESYNC = Long.MAX_VALUE;
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> queue;
+        private final OverflowPolicy overflowPolicy;
+        private final Executor senders;
+        private final BiFunction<String, Object, Set<DataWithMediaType>> events;
+        private final Counter dropped;
+        private final Counter disconnected;
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicLong resyncSince = new AtomicLong(NO_RESYNC);
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, int capacity, OverflowPolicy overflowPolicy, Executor senders,
+                   BiFunction<String, Object, Set<DataWithMediaType>> events, Counter dropped, Counter disconnected) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.overflowPolicy = overflowPolicy;
+            this.senders = senders;
+            this.events = events;
+            this.dropped = dropped;
+            this.disconnected = disconnected;
+        }
+
+        // Called by a single thread: the dispatcher
+        void offer(Message message) {
+            if (closed) {
+                return;
+            }
+            while (!queue.offer(message)) {
+                if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                    disconnected.increment();
+                    close();
+                    return;
+                }
+                Message oldest = queue.poll();
+                if (oldest != null) {
+                    dropped.increment();
+                    if (oldest.version() != null) {
+                        // Versions are not published in order: resync from before the oldest dropped one
+                        resyncSince.accumulateAndGet(oldest.version() - 1, Math::min);
+                    }
+                }
+            }
+            drain();
+        }
+
+        void offerIfIdle(Set<DataWithMediaType> frame) {
+            if (queue.isEmpty()) {
+                offer(new Message(frame, null));
+            }
+        }
+
+        void close() {
+            closed = true;
+            emitter.complete();
+        }
+
+        void completed() {
+            closed = true;
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+
+        private void drain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::sendPending);
+            }
+        }
+
+        private void sendPending() {
+            try {
+                Message message;
+                while (!closed && (message = queue.poll()) != null) {
+                    long since = resyncSince.getAndSet(NO_RESYNC);
+                    if (since != NO_RESYNC) {
+                        emitter.send(events.apply("resync", Map.of("version", since)));
+                    }
+                    emitter.send(message.frame());
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !queue.isEmpty()) {
+                drain();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-based cache of the principals loaded by the authentication filter.
+ * Hit, miss and eviction counts are published as the {@code cache.*} metrics tagged {@code cache=principals}.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final AsyncCache<String, UserDetails> cache;
+
+    public UserPrincipalCache(@Value("${auth.principal-cache.maximum-size:10000}") long maximumSize,
+                              @Value("${auth.principal-cache.ttl:5m}") Duration ttl,
+                              MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        return AsyncCaches.get(cache, username, loader);
+    }
+
+    public void evict(String username) {
+        cache.synchronous().invalidate(username);
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+}
@@ -9,9 +9,9 @@ import org.example.repository.UserRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +19,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserPrincipalCache principalCache;
 
     public UserResponse createUser(UserRequest request) {
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -44,21 +45,21 @@ public class UserService {
         return mapToResponse(user);
     }
 
+    @Transactional(readOnly = true)
     public List<UserResponse> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return userRepository.findAllResponses();
     }
 
+    @Transactional(readOnly = true)
     public UserResponse getUserById(Long id) {
-        User user = userRepository.findById(id)
+        return userRepository.findResponseById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
-        return mapToResponse(user);
     }
 
     public UserResponse updateUser(Long id, UserRequest request) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        String previousUsername = user.getUsername();
 
         // Only update allowed fields
         if (request.getUsername() != null) user.setUsername(request.getUsername());
@@ -69,14 +70,16 @@ public class UserService {
         }
 
         user = userRepository.save(user);
+        // Role, password and username changes must apply to the next request
+        principalCache.evict(previousUsername);
         return mapToResponse(user);
     }
 
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("User not found with id: " + id);
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        userRepository.delete(user);
+        principalCache.evict(user.getUsername());
     }
 
     private UserResponse mapToResponse(User user) {
@@ -0,0 +1,2 @@
+-- Spots written before the changes feed existed: version 1, so that a first sync (since=0) returns them.
+UPDATE spots SET change_version = 1, updated_at = CURRENT_TIMESTAMP WHERE change_version IS NULL;
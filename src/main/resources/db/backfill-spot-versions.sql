@@ -0,0 +1,2 @@
+-- Spots written before optimistic locking: version 0, so that conditional writes can match them.
+UPDATE spots SET version = 0 WHERE version IS NULL;
@@ -0,0 +1,8 @@
+-- Realigns spots_seq with the existing rows (databases created when ids were identity columns).
+-- Hibernate's pooled optimizer reads each sequence value as the upper bound of a block of 50 ids.
+-- Runs on every startup, so it only moves the sequence forward: ids of deleted spots are never handed out again.
+ALTER SEQUENCE spots_seq RESTART WITH (
+    SELECT GREATEST(COALESCE(MAX(id), 0) + 50,
+                    (SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES
+                     WHERE SEQUENCE_SCHEMA = SCHEMA() AND SEQUENCE_NAME = 'SPOTS_SEQ'))
+    FROM spots);
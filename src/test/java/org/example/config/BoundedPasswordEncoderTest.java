@@ -0,0 +1,81 @@
+package org.example.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean blocking;
+
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (blocking) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("hashed:" + rawPassword);
+        }
+    };
+
+    private final BoundedPasswordEncoder encoder =
+            new BoundedPasswordEncoder(slowEncoder, 1, 1, Duration.ofSeconds(2), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void encodeAndMatches_ShouldRunOnPoolAndRecordTimings() {
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("other", hash));
+        assertEquals(1, meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("auth.password.hash").tag("operation", "matches").timer().count());
+        assertEquals(3, meterRegistry.get("auth.password.wait").timer().count());
+    }
+
+    @Test
+    void encode_ShouldFailFastWhenQueueIsFull() throws InterruptedException {
+        blocking = true;
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (meterRegistry.get("auth.password.queue").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+
+        ServiceOverloadedException ex = assertThrows(ServiceOverloadedException.class, () -> encoder.encode("c"));
+
+        assertEquals(Duration.ofSeconds(2), ex.getRetryAfter());
+        assertEquals(1, meterRegistry.get("auth.password.rejected").counter().count());
+        release.countDown();
+        assertEquals("hashed:a", running.join());
+        assertEquals("hashed:b", queued.join());
+    }
+}
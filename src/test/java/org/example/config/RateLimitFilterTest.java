@@ -0,0 +1,63 @@
+package org.example.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final RateLimitFilter filter = new RateLimitFilter(
+            new RateLimitProperties(true, 100, List.of(new RateLimitProperties.Route(
+                    "auth", Set.of("POST"), List.of("/api/auth/login"), 2, Duration.ofSeconds(5)))),
+            new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry, nanos::get);
+
+    @Test
+    void doFilter_ShouldRejectClientOverItsBurstUntilRefilled() throws Exception {
+        assertEquals(200, send("POST", "/api/auth/login", "10.0.0.1").getStatus());
+        assertEquals(200, send("POST", "/api/auth/login", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse rejected = send("POST", "/api/auth/login", "10.0.0.1");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("5", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("Too many requests"));
+        assertEquals(200, send("POST", "/api/auth/login", "10.0.0.2").getStatus());
+        assertEquals(1, meterRegistry.get("http.ratelimit.rejected").tag("route", "auth").counter().count());
+
+        nanos.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertEquals(200, send("POST", "/api/auth/login", "10.0.0.1").getStatus());
+        assertEquals(429, send("POST", "/api/auth/login", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void doFilter_ShouldNotTrackRequestsOutsideTheRoutes() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, send("GET", "/api/auth/login", "10.0.0.1").getStatus());
+            assertEquals(200, send("POST", "/api/spots", "10.0.0.1").getStatus());
+        }
+
+        assertEquals(0, meterRegistry.get("http.ratelimit.keys").tag("route", "auth").gauge().value());
+    }
+
+    private MockHttpServletResponse send(String method, String path, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,303 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.SpotRequest;
+import org.example.dto.SpotResponse;
+import org.example.dto.UserRequest;
+import org.example.model.Role;
+import org.example.model.Spot;
+import org.example.model.User;
+import org.example.repository.SpotRepository;
+import org.example.repository.UserRepository;
+import org.example.service.SpotIndex;
+import org.example.support.MaxStatements;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.example.support.StatementCountExtension.assertMaxStatements;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * SQL round-trip budgets of the main endpoints, against the real persistence layer (in-memory H2).
+ * Raise a budget only when the extra statements are intended.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-count;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+class QueryCountTest {
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+    private final SpotRepository spotRepository;
+    private final UserRepository userRepository;
+    private final List<SpotIndex> spotIndexes;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Spot spot;
+    private User owner;
+
+    @Autowired
+    public QueryCountTest(MockMvc mockMvc, ObjectMapper objectMapper, SpotRepository spotRepository,
+                          UserRepository userRepository, List<SpotIndex> spotIndexes, JdbcTemplate jdbcTemplate) {
+        this.mockMvc = mockMvc;
+        this.objectMapper = objectMapper;
+        this.spotRepository = spotRepository;
+        this.userRepository = userRepository;
+        this.spotIndexes = spotIndexes;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        owner = userRepository.save(User.builder()
+                .username("owner-" + suffix)
+                .email(suffix + "@example.com")
+                .password("hash")
+                .role(Role.USER)
+                .build());
+        spot = spotRepository.save(Spot.builder()
+                .name("Skatepark " + suffix)
+                .location("Paris")
+                .latitude(48.8566)
+                .longitude(2.3522)
+                .createdBy(owner.getUsername())
+                .build());
+        SpotResponse indexed = SpotResponse.builder()
+                .id(spot.getId())
+                .name(spot.getName())
+                .location(spot.getLocation())
+                .latitude(spot.getLatitude())
+                .longitude(spot.getLongitude())
+                .build();
+        spotIndexes.forEach(index -> index.put(indexed));
+    }
+
+    @Test
+    void getSpotById_ShouldQueryOnceThenServeFromCache() throws Throwable {
+        assertMaxStatements(1, () -> mockMvc.perform(get("/api/spots/{id}", spot.getId()))
+                .andExpect(status().isOk()));
+        assertMaxStatements(0, () -> mockMvc.perform(get("/api/spots/{id}", spot.getId()))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    @MaxStatements(1)
+    void getSpotsPage_ShouldIssueSingleQuery() throws Exception {
+        mockMvc.perform(get("/api/spots").param("limit", "20"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxStatements(1)
+    void getSpotsPage_WithFields_ShouldIssueSingleQuery() throws Exception {
+        mockMvc.perform(get("/api/spots").param("limit", "20").param("fields", "name,latitude,longitude"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].latitude").exists())
+                .andExpect(jsonPath("$.items[0].description").doesNotExist());
+    }
+
+    @Test
+    void getMySpots_ShouldCountOnFirstPageOnly() throws Throwable {
+        Spot second = spotRepository.save(Spot.builder()
+                .name("Second " + spot.getName())
+                .latitude(45.0)
+                .longitude(5.0)
+                .createdBy(owner.getUsername())
+                .build());
+
+        assertMaxStatements(2, () -> mockMvc.perform(get("/api/spots/mine").param("limit", "1").with(user(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(spot.getId()))
+                .andExpect(jsonPath("$.total").value(2)));
+        assertMaxStatements(1, () -> mockMvc.perform(get("/api/spots/mine")
+                        .param("after", spot.getId().toString()).param("limit", "1").with(user(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(second.getId()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist()));
+        mockMvc.perform(get("/api/spots/mine"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @MaxStatements(2) // updated spots + tombstones
+    void getChanges_ShouldIssueOneQueryPerTable() throws Exception {
+        mockMvc.perform(get("/api/spots/changes").param("since", "0"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxStatements(1)
+    void getNearbySpots_ShouldIssueSingleQuery() throws Exception {
+        mockMvc.perform(get("/api/spots/nearby").param("lat", "48.8566").param("lon", "2.3522"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isNotEmpty());
+    }
+
+    @Test
+    @MaxStatements(1)
+    void getSpotsWithin_ShouldIssueSingleQuery() throws Exception {
+        mockMvc.perform(get("/api/spots/within")
+                        .param("minLat", "48.8").param("minLon", "2.3")
+                        .param("maxLat", "48.9").param("maxLon", "2.4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isNotEmpty());
+    }
+
+    @Test
+    @MaxStatements(0)
+    void getClusters_ShouldBeServedFromTheIndex() throws Exception {
+        mockMvc.perform(get("/api/spots/clusters")
+                        .param("minLat", "-90").param("minLon", "-180")
+                        .param("maxLat", "90").param("maxLon", "180")
+                        .param("zoom", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isNotEmpty());
+    }
+
+    @Test
+    @MaxStatements(1)
+    void searchSpots_ShouldIssueSingleQuery() throws Exception {
+        mockMvc.perform(get("/api/spots/search").param("q", spot.getName()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(spot.getId()));
+    }
+
+    @Test
+    @WithMockUser(username = "creator")
+    @MaxStatements(2) // sequence (at most once per 50 ids) + insert
+    void createSpot_ShouldInsertOnce() throws Exception {
+        SpotRequest request = SpotRequest.builder().name("New").latitude(45.0).longitude(5.0).build();
+
+        mockMvc.perform(post("/api/spots")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    @WithMockUser
+    @MaxStatements(2) // conditional update + read back of the creator and version
+    void updateSpot_ShouldUpdateOnceThenReadBack() throws Exception {
+        SpotRequest request = SpotRequest.builder().name("Renamed").latitude(45.0).longitude(5.0).build();
+
+        mockMvc.perform(put("/api/spots/{id}", spot.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+    }
+
+    @Test
+    @WithMockUser
+    void updateSpot_WithIfMatchOnCachedSpot_ShouldIssueSingleStatement() throws Throwable {
+        String etag = mockMvc.perform(get("/api/spots/{id}", spot.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+        String body = objectMapper.writeValueAsString(
+                SpotRequest.builder().name("Renamed").latitude(45.0).longitude(5.0).build());
+
+        assertMaxStatements(1, () -> mockMvc.perform(put("/api/spots/{id}", spot.getId())
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.createdBy").value(owner.getUsername())));
+        // The first update moved the spot to version 1
+        mockMvc.perform(put("/api/spots/{id}", spot.getId())
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/spots/{id}", spot.getId()).header("If-Match", etag))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @WithMockUser
+    @MaxStatements(2) // conditional delete + tombstone upsert
+    void deleteSpot_ShouldDeleteWithoutLoading() throws Exception {
+        mockMvc.perform(delete("/api/spots/{id}", spot.getId()))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @WithMockUser
+    void deleteSpot_WithReusedId_ShouldReplaceTheTombstone() throws Throwable {
+        mockMvc.perform(delete("/api/spots/{id}", spot.getId()))
+                .andExpect(status().isNoContent());
+        // A spot given the id of the deleted one, as after a sequence reset
+        jdbcTemplate.update("insert into spots (id, name, created_by, version) values (?, ?, ?, 0)",
+                spot.getId(), "Reused", owner.getUsername());
+
+        assertMaxStatements(2, () -> mockMvc.perform(delete("/api/spots/{id}", spot.getId()))
+                .andExpect(status().isNoContent()));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from spot_tombstones where spot_id = ?", Integer.class, spot.getId()));
+    }
+
+    @Test
+    void syncSequences_ShouldNotHandOutIdsOfDeletedSpots() {
+        spotRepository.deleteById(spot.getId());
+
+        // As on the next startup
+        new ResourceDatabasePopulator(new ClassPathResource("db/sync-sequences.sql"))
+                .execute(jdbcTemplate.getDataSource());
+        long next = jdbcTemplate.queryForObject("select next value for spots_seq", Long.class);
+
+        assertTrue(next - 49 > spot.getId());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    @MaxStatements(1)
+    void getAllUsers_ShouldIssueSingleQuery() throws Exception {
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].role").value("USER"))
+                .andExpect(jsonPath("$[0].password").doesNotExist());
+    }
+
+    @Test
+    @MaxStatements(2)
+    void updateUser_AsOwner_ShouldLoadUserOnce() throws Exception {
+        UserRequest request = UserRequest.builder().email("renamed-" + owner.getEmail()).build();
+
+        mockMvc.perform(put("/api/users/{id}", owner.getId())
+                        .with(user(owner))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("renamed-" + owner.getEmail()));
+    }
+
+    @Test
+    @MaxStatements(0)
+    void updateUser_AsOtherUser_ShouldBeRejectedWithoutQuery() throws Exception {
+        User other = User.builder().id(-1L).username("other").password("hash").role(Role.USER).build();
+
+        mockMvc.perform(put("/api/users/{id}", owner.getId())
+                        .with(user(other))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"hijack@example.com\"}"))
+                .andExpect(status().isForbidden());
+    }
+}
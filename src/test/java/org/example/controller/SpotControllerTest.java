@@ -1,25 +1,56 @@
 package org.example.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.example.dto.CursorPage;
+import org.example.dto.SpotChange;
+import org.example.dto.SpotChanges;
+import org.example.dto.SpotCluster;
+import org.example.dto.SpotField;
+import org.example.dto.SpotImportResponse;
 import org.example.dto.SpotRequest;
 import org.example.dto.SpotResponse;
+import org.example.event.SpotChangedEvent;
+import org.example.exception.PreconditionFailedException;
+import org.example.service.SpotImportService;
 import org.example.service.SpotService;
+import org.example.service.SpotChangeVersions;
+import org.example.service.SpotSnapshot;
+import org.example.service.SpotStream;
 import org.example.service.JwtService;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -27,21 +58,34 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(SpotController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import({SimpleMeterRegistry.class, SpotSnapshot.class, SpotStream.class}) // real beans with their meters
 class SpotControllerTest {
 
     private final MockMvc mockMvc;
     private final ObjectMapper objectMapper;
+    private final SpotSnapshot spotSnapshot;
+    private final SpotStream spotStream;
 
     @Autowired
-    public SpotControllerTest(MockMvc mockMvc, ObjectMapper objectMapper) {
+    public SpotControllerTest(MockMvc mockMvc, ObjectMapper objectMapper, SpotSnapshot spotSnapshot,
+                              SpotStream spotStream) {
         this.mockMvc = mockMvc;
         this.objectMapper = objectMapper;
+        this.spotSnapshot = spotSnapshot;
+        this.spotStream = spotStream;
     }
 
     @MockBean
     @SuppressWarnings("unused")
     private SpotService spotService;
 
+    @MockBean
+    @SuppressWarnings("unused")
+    private SpotImportService spotImportService;
+
+    @MockBean
+    private SpotChangeVersions changeVersions;
+
     @MockBean
     @SuppressWarnings("unused")
     private JwtService jwtService;
@@ -76,6 +120,7 @@ class SpotControllerTest {
         List<SpotResponse> spots = Arrays.asList(spot1, spot2);
 
         when(spotService.getAllSpots()).thenReturn(spots);
+        spotSnapshot.rebuild();
 
         mockMvc.perform(get("/api/spots"))
                 .andExpect(status().isOk())
@@ -83,6 +128,67 @@ class SpotControllerTest {
                 .andExpect(jsonPath("$[1].name").value("Street Spot"));
     }
 
+    @Test
+    @WithMockUser
+    void getAllSpots_ShouldServeGzippedSnapshotAndAnswerNotModified() throws Exception {
+        SpotResponse spot = SpotResponse.builder().id(1L).name("Skatepark Central").build();
+
+        when(spotService.getAllSpots()).thenReturn(List.of(spot));
+        spotSnapshot.rebuild();
+
+        MockHttpServletResponse response = mockMvc.perform(get("/api/spots").header("Accept-Encoding", "gzip, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", containsString("Accept-Encoding")))
+                .andReturn().getResponse();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals("[{\"id\":1,\"name\":\"Skatepark Central\",\"description\":null,\"location\":null,"
+                    + "\"latitude\":null,\"longitude\":null,\"createdBy\":null}]",
+                    new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        mockMvc.perform(get("/api/spots").header("Accept-Encoding", "gzip")
+                        .header("If-None-Match", response.getHeader("ETag")))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/spots").header("If-None-Match", response.getHeader("ETag")))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"));
+        verify(spotService, times(1)).getAllSpots();
+    }
+
+    @Test
+    @WithMockUser
+    void getSpotsPage_ShouldReturnItemsAndNextCursor() throws Exception {
+        SpotResponse spot = SpotResponse.builder().id(11L).name("Skatepark Central").build();
+
+        when(spotService.getSpotsPage(10L, 1)).thenReturn(
+                CursorPage.<SpotResponse>builder().items(List.of(spot)).nextCursor(11L).build());
+
+        mockMvc.perform(get("/api/spots").param("after", "10").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Skatepark Central"))
+                .andExpect(jsonPath("$.nextCursor").value(11));
+    }
+
+    @Test
+    @WithMockUser
+    void exportSpots_ShouldStreamNdjson() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(spotService).exportSpots(any(OutputStream.class));
+
+        var result = mockMvc.perform(get("/api/spots/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
     @Test
     @WithMockUser
     void getSpotById_ShouldReturnSpot() throws Exception {
@@ -94,14 +200,19 @@ class SpotControllerTest {
                 .latitude(48.8566)
                 .longitude(2.3522)
                 .createdBy("user1")
+                .version(3L)
                 .build();
 
         when(spotService.getSpotById(1L)).thenReturn(spot);
 
         mockMvc.perform(get("/api/spots/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
                 .andExpect(jsonPath("$.name").value("Skatepark Central"))
-                .andExpect(jsonPath("$.location").value("Paris"));
+                .andExpect(jsonPath("$.location").value("Paris"))
+                .andExpect(jsonPath("$.version").doesNotExist());
+        mockMvc.perform(get("/api/spots/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified());
     }
 
     @Test
@@ -136,6 +247,26 @@ class SpotControllerTest {
                 .andExpect(jsonPath("$.location").value("Marseille"));
     }
 
+    @Test
+    @WithMockUser
+    void importSpots_ShouldReturnReport() throws Exception {
+        SpotImportResponse report = SpotImportResponse.builder()
+                .imported(1)
+                .failed(1)
+                .errors(List.of(new SpotImportResponse.RowError(1, "name: Name is required")))
+                .build();
+
+        when(spotImportService.importSpots(any(InputStream.class))).thenReturn(report);
+
+        mockMvc.perform(post("/api/spots/import")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"A\"}\n{\"name\":\"\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].index").value(1));
+    }
+
     @Test
     @WithMockUser
     void updateSpot_ShouldReturnUpdatedSpot() throws Exception {
@@ -155,24 +286,204 @@ class SpotControllerTest {
                 .latitude(43.7102)
                 .longitude(7.2620)
                 .createdBy("testuser")
+                .version(4L)
                 .build();
 
-        when(spotService.updateSpot(eq(1L), any(SpotRequest.class))).thenReturn(response);
+        when(spotService.updateSpot(eq(1L), any(SpotRequest.class), eq(3L))).thenReturn(response);
 
         mockMvc.perform(put("/api/spots/1")
                         .with(csrf())
+                        .header("If-Match", "\"3\"")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
                 .andExpect(jsonPath("$.name").value("Updated Spot"))
                 .andExpect(jsonPath("$.location").value("Nice"));
     }
 
+    @Test
+    @WithMockUser
+    void updateSpot_WithWeakOrStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        String body = objectMapper.writeValueAsString(SpotRequest.builder().name("Updated Spot").build());
+        when(spotService.updateSpot(eq(1L), any(SpotRequest.class), eq(2L)))
+                .thenThrow(new PreconditionFailedException("Spot 1 has been modified since version 2"));
+
+        mockMvc.perform(put("/api/spots/1")
+                        .with(csrf())
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/api/spots/1")
+                        .with(csrf())
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+    }
+
     @Test
     @WithMockUser
     void deleteSpot_ShouldReturnNoContent() throws Exception {
         mockMvc.perform(delete("/api/spots/1")
-                        .with(csrf()))
+                        .with(csrf())
+                        .header("If-Match", "*"))
                 .andExpect(status().isNoContent());
+
+        verify(spotService).deleteSpot(1L, null);
+    }
+
+    @Test
+    @WithMockUser
+    void getNearbySpots_ShouldReturnSpotsOrderedByDistance() throws Exception {
+        SpotResponse near = SpotResponse.builder().id(2L).name("Near").latitude(48.857).longitude(2.352).build();
+        SpotResponse far = SpotResponse.builder().id(1L).name("Far").latitude(48.9).longitude(2.4).build();
+
+        when(spotService.getNearbySpots(48.8566, 2.3522, 5.0, 10)).thenReturn(List.of(near, far));
+
+        mockMvc.perform(get("/api/spots/nearby")
+                        .param("lat", "48.8566")
+                        .param("lon", "2.3522")
+                        .param("radiusKm", "5")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Near"))
+                .andExpect(jsonPath("$[1].name").value("Far"));
+    }
+
+    @Test
+    @WithMockUser
+    void searchSpots_ShouldReturnRankedSpots() throws Exception {
+        SpotResponse spot = SpotResponse.builder().id(1L).name("Skatepark Central").location("Paris").build();
+
+        when(spotService.searchSpots("skatepark", 20)).thenReturn(List.of(spot));
+
+        mockMvc.perform(get("/api/spots/search").param("q", "skatepark"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Skatepark Central"));
+    }
+
+    @Test
+    @WithMockUser
+    void getClusters_ShouldReturnClusters() throws Exception {
+        SpotCluster cluster = SpotCluster.builder().latitude(48.85).longitude(2.35).count(12).sampleIds(List.of(1L)).build();
+
+        when(spotService.getClusters(41.0, -5.0, 51.0, 10.0, 5, true)).thenReturn(List.of(cluster));
+
+        mockMvc.perform(get("/api/spots/clusters")
+                        .param("minLat", "41").param("minLon", "-5")
+                        .param("maxLat", "51").param("maxLon", "10")
+                        .param("zoom", "5").param("samples", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].count").value(12))
+                .andExpect(jsonPath("$[0].sampleIds[0]").value(1));
+    }
+
+    @Test
+    @WithMockUser
+    void getSpotsWithin_ShouldUseDefaultLimit() throws Exception {
+        SpotResponse spot = SpotResponse.builder().id(1L).name("Skatepark Central").latitude(48.85).longitude(2.35).build();
+
+        when(spotService.getSpotsWithin(48.0, 2.0, 49.0, 3.0, 200)).thenReturn(List.of(spot));
+
+        mockMvc.perform(get("/api/spots/within")
+                        .param("minLat", "48").param("minLon", "2")
+                        .param("maxLat", "49").param("maxLon", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    void getMySpots_ShouldReturnPageWithTotal() throws Exception {
+        SpotResponse spot = SpotResponse.builder().id(4L).name("Mine").createdBy("alice").build();
+        when(spotService.getMySpots(null, 10)).thenReturn(
+                CursorPage.<SpotResponse>builder().items(List.of(spot)).nextCursor(4L).total(12L).build());
+
+        mockMvc.perform(get("/api/spots/mine").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Mine"))
+                .andExpect(jsonPath("$.nextCursor").value(4))
+                .andExpect(jsonPath("$.total").value(12));
+    }
+
+    @Test
+    @WithMockUser
+    void getSpotsPage_WithFields_ShouldReturnOnlyRequestedFields() throws Exception {
+        Map<String, Object> spot = new LinkedHashMap<>();
+        spot.put("id", 1L);
+        spot.put("name", "Skatepark Central");
+        CursorPage<Map<String, Object>> page = CursorPage.<Map<String, Object>>builder().items(List.of(spot)).build();
+
+        when(spotService.getSpotsPage(null, 20, EnumSet.of(SpotField.ID, SpotField.NAME))).thenReturn(page);
+
+        mockMvc.perform(get("/api/spots").param("limit", "20").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].name").value("Skatepark Central"))
+                .andExpect(jsonPath("$.items[0].description").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void getSpotById_WithUnknownField_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/spots/1").param("fields", "name,password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void getAllSpots_WithCborAccept_ShouldReturnCbor() throws Exception {
+        SpotResponse spot = SpotResponse.builder().id(1L).name("Skatepark Central").latitude(48.85).longitude(2.35).build();
+
+        when(spotService.getAllSpots()).thenReturn(List.of(spot));
+
+        byte[] body = mockMvc.perform(get("/api/spots").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        SpotResponse[] decoded = new CBORMapper().readValue(body, SpotResponse[].class);
+        assertEquals(spot, decoded[0]);
+    }
+
+    @Test
+    @WithMockUser
+    void getChanges_ShouldReturnChangesAndNextVersion() throws Exception {
+        SpotChanges changes = SpotChanges.builder()
+                .changes(List.of(SpotChange.builder().type(SpotChange.Type.DELETE).version(12).id(3L).build()))
+                .version(12)
+                .build();
+
+        when(spotService.getChanges(10L, 500)).thenReturn(changes);
+
+        mockMvc.perform(get("/api/spots/changes").param("since", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].type").value("DELETE"))
+                .andExpect(jsonPath("$.changes[0].id").value(3))
+                .andExpect(jsonPath("$.version").value(12))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @WithMockUser
+    void streamChanges_ShouldSendReadyThenPublishedChanges() throws Exception {
+        when(changeVersions.committedUpTo()).thenReturn(41L);
+
+        MvcResult result = mockMvc.perform(get("/api/spots/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        spotStream.onSpotChanged(SpotChangedEvent.deleted(3L, 42L, Instant.parse("2026-01-01T00:00:00Z")));
+
+        String expected = "event:ready\ndata:{\"version\":41}\n\n"
+                + "id:42\nevent:spot\ndata:{\"type\":\"DELETE\",\"version\":42,\"id\":3,"
+                + "\"at\":\"2026-01-01T00:00:00Z\",\"spot\":null}\n\n";
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!result.getResponse().getContentAsString().equals(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, result.getResponse().getContentAsString());
     }
 }
@@ -1,21 +1,27 @@
 package org.example.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.CursorPage;
+import org.example.dto.SpotResponse;
 import org.example.dto.UserRequest;
 import org.example.dto.UserResponse;
+import org.example.service.SpotService;
 import org.example.service.UserService;
 import org.example.service.JwtService;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
+import java.util.List;
 
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -23,6 +29,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(UserController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import(SimpleMeterRegistry.class) // JwtAuthenticationFilter records its verification time
 class UserControllerTest {
 
     private final MockMvc mockMvc;
@@ -38,6 +45,10 @@ class UserControllerTest {
     @SuppressWarnings("unused")
     private UserService userService;
 
+    @MockBean
+    @SuppressWarnings("unused")
+    private SpotService spotService;
+
     @MockBean
     @SuppressWarnings("unused")
     private JwtService jwtService;
@@ -71,4 +82,18 @@ class UserControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.username").value("new"));
     }
+
+    @Test
+    @WithMockUser(authorities = "ADMIN")
+    void getUserSpots_ShouldPageSpotsOfThatUser() throws Exception {
+        when(userService.getUserById(3L)).thenReturn(UserResponse.builder().id(3L).username("alice").build());
+        when(spotService.getSpotsByCreator("alice", 7L, 50)).thenReturn(CursorPage.<SpotResponse>builder()
+                .items(List.of(SpotResponse.builder().id(8L).createdBy("alice").build()))
+                .build());
+
+        mockMvc.perform(get("/api/users/3/spots").param("after", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(8))
+                .andExpect(jsonPath("$.total").doesNotExist());
+    }
 }
@@ -0,0 +1,35 @@
+package org.example.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void handleInternalAuthenticationServiceException_ShouldUnwrapOverloadedPasswordHashing() {
+        ServiceOverloadedException overloaded =
+                new ServiceOverloadedException("Too many authentication requests", Duration.ofSeconds(2));
+
+        ResponseEntity<Map<String, Object>> response = handler.handleInternalAuthenticationServiceException(
+                new InternalAuthenticationServiceException(overloaded.getMessage(), overloaded));
+
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals("2", response.getHeaders().getFirst("Retry-After"));
+    }
+
+    @Test
+    void handleInternalAuthenticationServiceException_ShouldKeepOtherCausesAsBadRequest() {
+        ResponseEntity<Map<String, Object>> response = handler.handleInternalAuthenticationServiceException(
+                new InternalAuthenticationServiceException("lookup failed", new IllegalStateException()));
+
+        assertEquals(400, response.getStatusCode().value());
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.example.model.Role;
+import org.example.model.User;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private final JwtService jwtService = new JwtService(SECRET, 60_000);
+
+    private final User user = User.builder().username("testuser").password("pw").role(Role.USER).build();
+
+    @Test
+    void verify_ShouldReturnSubjectAndExpiry() {
+        String token = jwtService.generateToken(user);
+
+        Claims claims = jwtService.verify(token);
+
+        assertEquals("testuser", claims.getSubject());
+        assertNotNull(claims.getExpiration());
+        assertTrue(jwtService.isTokenValid(claims, user));
+        assertEquals("testuser", jwtService.extractUsername(token));
+    }
+
+    @Test
+    void isTokenValid_WithOtherUser_ShouldReturnFalse() {
+        Claims claims = jwtService.verify(jwtService.generateToken(user));
+        User other = User.builder().username("other").password("pw").role(Role.USER).build();
+
+        assertFalse(jwtService.isTokenValid(claims, other));
+    }
+
+    @Test
+    void verify_WithTamperedToken_ShouldThrow() {
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+    }
+
+    @Test
+    void verify_WithExpiredToken_ShouldThrow() {
+        JwtService expiredService = new JwtService(SECRET, -1_000);
+        String token = expiredService.generateToken(user);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verify(token));
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dto.SpotResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SpotCache cache = new SpotCache(100, meterRegistry);
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<Long, SpotResponse> loader = id -> {
+        loads.incrementAndGet();
+        return SpotResponse.builder().id(id).name("Spot " + id).build();
+    };
+
+    @Test
+    void get_ShouldReadThroughAndPublishHitRatio() {
+        cache.get(1L, loader);
+        cache.get(1L, loader);
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(0.5, meterRegistry.get("cache.hit.ratio").tag("cache", "spots").gauge().value());
+    }
+
+    @Test
+    void invalidate_ShouldForceReload() {
+        cache.get(1L, loader);
+        cache.invalidate(1L);
+        cache.get(1L, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void put_ShouldServeWithoutLoading() {
+        cache.put(SpotResponse.builder().id(3L).name("Created").build());
+
+        assertEquals("Created", cache.get(3L, loader).getName());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void get_ShouldRethrowLoaderFailureWithoutCachingIt() {
+        RuntimeException failure = new RuntimeException("Spot not found with id: 4");
+
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> cache.get(4L, id -> {
+            throw failure;
+        }));
+
+        assertSame(failure, thrown);
+        assertEquals("Spot 4", cache.get(4L, loader).getName());
+        assertEquals(1, loads.get());
+    }
+}
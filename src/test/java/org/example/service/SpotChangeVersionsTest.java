@@ -0,0 +1,37 @@
+package org.example.service;
+
+import org.example.repository.SpotRepository;
+import org.example.repository.SpotTombstoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SpotChangeVersionsTest {
+
+    private final SpotRepository spotRepository = mock(SpotRepository.class);
+    private final SpotTombstoneRepository tombstoneRepository = mock(SpotTombstoneRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final SpotChangeVersions changeVersions =
+            new SpotChangeVersions(spotRepository, tombstoneRepository, transactionTemplate);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void write_FromEnclosingTransaction_ShouldFailWithoutAllocating() {
+        when(spotRepository.maxChangeVersion()).thenReturn(4L);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertThrows(IllegalStateException.class, () -> changeVersions.write(1, version -> version));
+
+        verify(transactionTemplate, never()).execute(any());
+        assertEquals(4, changeVersions.committedUpTo());
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.service;
+
+import org.example.dto.SpotCluster;
+import org.example.dto.SpotResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotClusterIndexTest {
+
+    private SpotClusterIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SpotClusterIndex(16, 2);
+        index.put(spot(1L, 48.8566, 2.3522));   // Paris
+        index.put(spot(2L, 48.8606, 2.3376));   // Louvre
+        index.put(spot(3L, 45.7640, 4.8357));   // Lyon
+        index.put(spot(4L, -33.8688, 151.2093)); // Sydney
+    }
+
+    @Test
+    void clusters_WhenZoomedOut_ShouldAggregateNearbySpots() {
+        List<SpotCluster> clusters = index.clusters(-90, -180, 90, 180, 0, true);
+
+        assertEquals(2, clusters.size());
+        SpotCluster france = clusters.get(0);
+        assertEquals(3, france.getCount());
+        assertEquals((48.8566 + 48.8606 + 45.7640) / 3, france.getLatitude(), 1e-9);
+        assertEquals(List.of(1L, 2L), france.getSampleIds());
+        assertEquals(1, clusters.get(1).getCount());
+    }
+
+    @Test
+    void clusters_WhenZoomedIn_ShouldSplitAndKeepOnlyTheViewport() {
+        List<SpotCluster> clusters = index.clusters(48.80, 2.25, 48.90, 2.45, 16, false);
+
+        assertEquals(2, clusters.stream().mapToLong(SpotCluster::getCount).sum());
+        assertTrue(clusters.stream().allMatch(c -> c.getSampleIds().isEmpty()));
+    }
+
+    @Test
+    void clusters_WhenViewportIsHugeForTheZoom_ShouldUseACoarserLevel() {
+        List<SpotCluster> clusters = index.clusters(-90, -180, 90, 180, 22, false);
+
+        assertEquals(4, clusters.stream().mapToLong(SpotCluster::getCount).sum());
+    }
+
+    @Test
+    void clusters_ShouldWrapAroundAntimeridian() {
+        index.put(spot(5L, 0.0, 179.9));
+        index.put(spot(6L, 0.0, -179.9));
+
+        List<SpotCluster> clusters = index.clusters(-1, 179, 1, -179, 8, true);
+
+        assertEquals(2, clusters.stream().mapToLong(SpotCluster::getCount).sum());
+    }
+
+    @Test
+    void putAndRemove_ShouldUpdateCellsIncrementally() {
+        index.put(spot(3L, 48.8570, 2.3500)); // Lyon moved to Paris
+        index.remove(4L);
+
+        List<SpotCluster> clusters = index.clusters(-90, -180, 90, 180, 0, false);
+
+        assertEquals(1, clusters.size());
+        assertEquals(3, clusters.get(0).getCount());
+        assertTrue(index.clusters(-35, 150, -33, 152, 10, false).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void remove_ShouldRefillSamplesFromTheRemainingSpotsOfTheCell() {
+        index.remove(1L);
+        index.remove(2L);
+
+        SpotCluster france = index.clusters(30, -10, 60, 20, 0, true).get(0);
+        assertEquals(1, france.getCount());
+        assertEquals(List.of(3L), france.getSampleIds());
+
+        index.put(spot(5L, 48.8530, 2.3499));   // Notre-Dame
+        index.put(spot(6L, 48.8584, 2.2945));   // Tour Eiffel
+        index.remove(3L);
+        assertEquals(List.of(5L, 6L), index.clusters(30, -10, 60, 20, 0, true).get(0).getSampleIds());
+    }
+
+    private static SpotResponse spot(Long id, double latitude, double longitude) {
+        return SpotResponse.builder().id(id).latitude(latitude).longitude(longitude).build();
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.service;
+
+import org.example.dto.SpotResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotGeoIndexTest {
+
+    private SpotGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SpotGeoIndex(0.1);
+        index.put(1L, 48.8566, 2.3522);   // Paris
+        index.put(2L, 48.8606, 2.3376);   // Louvre, ~1.2 km
+        index.put(3L, 45.7640, 4.8357);   // Lyon, ~390 km
+        index.put(4L, -33.8688, 151.2093); // Sydney
+    }
+
+    @Test
+    void nearby_ShouldReturnClosestFirstWithinRadius() {
+        List<Long> ids = index.nearby(48.8584, 2.2945, 10, 10);
+
+        assertEquals(List.of(2L, 1L), ids);
+    }
+
+    @Test
+    void nearby_ShouldApplyLimit() {
+        List<Long> ids = index.nearby(48.8584, 2.2945, 1000, 2);
+
+        assertEquals(List.of(2L, 1L), ids);
+    }
+
+    @Test
+    void nearby_ShouldHandleLargeRadius() {
+        List<Long> ids = index.nearby(0, 0, 20000, 10);
+
+        assertEquals(4, ids.size());
+    }
+
+    @Test
+    void nearby_ShouldWrapAroundAntimeridian() {
+        index.put(5L, 0.0, 179.99);
+
+        assertEquals(List.of(5L), index.nearby(0.0, -179.99, 5, 10));
+    }
+
+    @Test
+    void put_ShouldMoveSpotAndRemoveShouldDropIt() {
+        SpotResponse moved = SpotResponse.builder().id(3L).latitude(48.8570).longitude(2.3500).build();
+        index.put(moved);
+
+        assertTrue(index.nearby(48.8566, 2.3522, 1, 10).contains(3L));
+        assertTrue(index.nearby(45.7640, 4.8357, 1, 10).isEmpty());
+
+        index.remove(3L);
+
+        assertFalse(index.nearby(48.8566, 2.3522, 1, 10).contains(3L));
+        assertEquals(3, index.size());
+    }
+}
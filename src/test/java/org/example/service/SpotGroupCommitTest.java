@@ -0,0 +1,117 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.exception.ServiceOverloadedException;
+import org.example.model.Spot;
+import org.example.repository.SpotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SpotGroupCommitTest {
+
+    private final SpotRepository spotRepository = mock(SpotRepository.class);
+    private final SpotChangeVersions changeVersions = mock(SpotChangeVersions.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<String>> transactions = new CopyOnWriteArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicLong versions = new AtomicLong(1);
+    private final CountDownLatch committing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    // Large delay: a batch is only committed once max-batch rows are queued
+    private final SpotGroupCommit groupCommit = new SpotGroupCommit(spotRepository, changeVersions, true, 3,
+            Duration.ofSeconds(5), 10, meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        when(changeVersions.write(anyInt(), any())).thenAnswer(invocation ->
+                invocation.<LongFunction<?>>getArgument(1).apply(versions.getAndAdd(invocation.<Integer>getArgument(0))));
+        when(spotRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Spot> spots = invocation.getArgument(0);
+            transactions.add(spots.stream().map(Spot::getName).toList());
+            if (spots.stream().anyMatch(spot -> spot.getName().equals("bad"))) {
+                throw new DataIntegrityViolationException("rejected");
+            }
+            if (spots.stream().anyMatch(spot -> spot.getName().equals("slow"))) {
+                committing.countDown();
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            }
+            spots.forEach(spot -> spot.setId(ids.incrementAndGet()));
+            return spots;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        groupCommit.close();
+    }
+
+    @Test
+    void insert_ShouldCommitConcurrentCreationsTogether() {
+        List<CompletableFuture<Spot>> created = IntStream.range(0, 3)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> groupCommit.insert(spot("spot " + i))))
+                .toList();
+
+        List<Spot> spots = created.stream().map(CompletableFuture::join).toList();
+
+        assertEquals(1, transactions.size());
+        assertEquals(3, spots.stream().map(Spot::getId).distinct().count());
+        assertEquals(List.of(1L, 2L, 3L), spots.stream().map(Spot::getChangeVersion).sorted().toList());
+        assertEquals(3, meterRegistry.get("spot.group-commit.batch").summary().totalAmount());
+    }
+
+    @Test
+    void insert_WhenBatchFails_ShouldOnlyFailTheRejectedRow() {
+        CompletableFuture<Spot> first = CompletableFuture.supplyAsync(() -> groupCommit.insert(spot("a")));
+        CompletableFuture<Spot> bad = CompletableFuture.supplyAsync(() -> groupCommit.insert(spot("bad")));
+        CompletableFuture<Spot> last = CompletableFuture.supplyAsync(() -> groupCommit.insert(spot("c")));
+
+        assertNotNull(first.join().getId());
+        assertNotNull(last.join().getId());
+        CompletionException ex = assertThrows(CompletionException.class, bad::join);
+        assertInstanceOf(DataIntegrityViolationException.class, ex.getCause());
+        // The failed batch, then one transaction per row
+        assertEquals(4, transactions.size());
+    }
+
+    @Test
+    void close_ShouldFinishTheBatchBeingCommitted() throws Exception {
+        List<CompletableFuture<Spot>> created = List.of("a", "slow", "c").stream()
+                .map(name -> CompletableFuture.supplyAsync(() -> groupCommit.insert(spot(name))))
+                .toList();
+        assertTrue(committing.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> closed = CompletableFuture.runAsync(groupCommit::close);
+        Thread.sleep(100);
+        assertFalse(closed.isDone());
+        release.countDown();
+        closed.get(5, TimeUnit.SECONDS);
+
+        created.forEach(spot -> assertNotNull(spot.join().getId()));
+        assertEquals(1, transactions.size());
+        assertThrows(ServiceOverloadedException.class, () -> groupCommit.insert(spot("late")));
+    }
+
+    private static Spot spot(String name) {
+        return Spot.builder().name(name).createdBy("user").build();
+    }
+}
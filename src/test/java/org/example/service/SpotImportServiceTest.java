@@ -0,0 +1,125 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.example.dto.SpotImportResponse;
+import org.example.event.SpotChangedEvent;
+import org.example.model.Spot;
+import org.example.repository.SpotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class SpotImportServiceTest {
+
+    private final SpotRepository spotRepository = mock(SpotRepository.class);
+    private final SpotChangeVersions changeVersions = mock(SpotChangeVersions.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private final AtomicLong ids = new AtomicLong();
+
+    private final SpotImportService importService = new SpotImportService(spotRepository, mock(EntityManager.class),
+            changeVersions, validator, new ObjectMapper(), eventPublisher, 2);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("importer", null));
+        when(changeVersions.write(anyInt(), any())).thenAnswer(invocation ->
+                invocation.<LongFunction<?>>getArgument(1).apply(1L));
+        when(spotRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Spot> spots = invocation.getArgument(0);
+            spots.forEach(spot -> spot.setId(ids.incrementAndGet()));
+            return spots;
+        });
+        when(spotRepository.saveAndFlush(any(Spot.class))).thenAnswer(invocation -> {
+            Spot spot = invocation.getArgument(0);
+            spot.setId(ids.incrementAndGet());
+            return spot;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importSpots_FromJsonArray_ShouldInsertInBatches() throws Exception {
+        String body = "[{\"name\":\"A\"},{\"name\":\"B\"},{\"name\":\"C\",\"latitude\":43.3,\"longitude\":5.4}]";
+
+        SpotImportResponse result = importService.importSpots(stream(body));
+
+        assertEquals(3, result.getImported());
+        assertEquals(0, result.getFailed());
+        verify(spotRepository, times(2)).saveAllAndFlush(anyList());
+        verify(spotRepository).saveAllAndFlush(argThat(spots -> ((List<Spot>) spots).size() == 2));
+        verify(eventPublisher, times(3)).publishEvent(any(SpotChangedEvent.class));
+    }
+
+    @Test
+    void importSpots_FromNdjson_ShouldReportInvalidRowsAndKeepGoing() throws Exception {
+        String body = """
+                {"name":"A"}
+                {"name":"","latitude":120}
+                {"name":"B","latitude":"north"}
+                {"name":"C"}
+                """;
+
+        SpotImportResponse result = importService.importSpots(stream(body));
+
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertEquals("latitude: Latitude must be between -90 and 90, name: Name is required",
+                result.getErrors().get(0).getMessage());
+        assertEquals(2, result.getErrors().get(1).getIndex());
+    }
+
+    @Test
+    void importSpots_WhenBatchFails_ShouldRetryRowByRow() throws Exception {
+        when(spotRepository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("batch"));
+        when(spotRepository.saveAndFlush(argThat(spot -> spot != null && spot.getName().equals("Bad"))))
+                .thenThrow(new DataIntegrityViolationException("Value too long"));
+
+        SpotImportResponse result = importService.importSpots(stream("[{\"name\":\"Good\"},{\"name\":\"Bad\"}]"));
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Insert failed"));
+    }
+
+    @Test
+    void importSpots_WithMalformedJson_ShouldKeepRowsReadSoFar() throws Exception {
+        SpotImportResponse result = importService.importSpots(stream("{\"name\":\"A\"}\n{\"name\":"));
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Malformed JSON"));
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.service;
+
+import org.example.dto.SpotResponse;
+import org.example.event.SpotChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SpotIndexerTest {
+
+    private final SpotService spotService = mock(SpotService.class);
+    private final SpotIndex geoIndex = mock(SpotIndex.class);
+    private final SpotIndex searchIndex = mock(SpotIndex.class);
+    private final SpotIndexer indexer = new SpotIndexer(spotService, List.of(geoIndex, searchIndex));
+
+    private final SpotResponse spot = SpotResponse.builder().id(1L).name("Spot").build();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_ShouldLoadEveryIndexInOnePass() {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Consumer.class).accept(spot);
+            return null;
+        }).when(spotService).forEachSpot(any());
+
+        indexer.rebuild();
+
+        verify(spotService, times(1)).forEachSpot(any());
+        verify(geoIndex).clear();
+        verify(geoIndex).put(spot);
+        verify(searchIndex).put(spot);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_ShouldReplayChangesReceivedWhileStreaming() {
+        doAnswer(invocation -> {
+            // Deleted after the stream read it, before it reached the indexes
+            indexer.onSpotChanged(SpotChangedEvent.deleted(1L, 3L, Instant.now()));
+            invocation.getArgument(0, Consumer.class).accept(spot);
+            return null;
+        }).when(spotService).forEachSpot(any());
+
+        indexer.rebuild();
+
+        InOrder inOrder = inOrder(geoIndex);
+        inOrder.verify(geoIndex).put(spot);
+        inOrder.verify(geoIndex).remove(1L);
+    }
+
+    @Test
+    void onSpotChanged_ShouldUpdateAndRemoveFromEveryIndex() {
+        indexer.onSpotChanged(SpotChangedEvent.updated(spot, 2L, Instant.now()));
+        indexer.onSpotChanged(SpotChangedEvent.deleted(1L, 3L, Instant.now()));
+
+        verify(geoIndex).put(spot);
+        verify(searchIndex).put(spot);
+        verify(geoIndex).remove(1L);
+        verify(searchIndex).remove(1L);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.service;
+
+import org.example.dto.SpotResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotSearchIndexTest {
+
+    private SpotSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SpotSearchIndex();
+        index.put(SpotResponse.builder().id(1L).name("Skatepark Central").description("Great bowl").location("Paris").build());
+        index.put(SpotResponse.builder().id(2L).name("Street Spot").description("Rails near the skatepark").location("Lyon").build());
+        index.put(SpotResponse.builder().id(3L).name("Bowl de la Friche").description("Concrete bowl").location("Marseille").build());
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesFirst() {
+        assertEquals(List.of(1L, 2L), index.search("skatepark", 10));
+        assertEquals(List.of(3L, 1L), index.search("bowl", 10));
+    }
+
+    @Test
+    void search_ShouldMatchLocationPrefixAndIgnoreCaseAndAccents() {
+        assertEquals(List.of(3L), index.search("MARS", 10));
+        assertEquals(List.of(1L, 2L), index.search("skatepärk", 10));
+    }
+
+    @Test
+    void search_ShouldTolerateTypos() {
+        assertEquals(1L, index.search("skatpark", 10).get(0));
+    }
+
+    @Test
+    void search_ShouldApplyLimit() {
+        assertEquals(List.of(3L), index.search("bowl", 1));
+    }
+
+    @Test
+    void putAndRemove_ShouldKeepIndexInSync() {
+        index.put(SpotResponse.builder().id(3L).name("Ledge").location("Nice").build());
+
+        assertEquals(List.of(1L), index.search("bowl", 10));
+
+        index.remove(1L);
+
+        assertTrue(index.search("bowl", 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+}
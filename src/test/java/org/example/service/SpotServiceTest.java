@@ -1,25 +1,51 @@
 package org.example.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.CursorPage;
+import org.example.dto.SpotChange;
+import org.example.dto.SpotChanges;
+import org.example.dto.SpotCluster;
+import org.example.dto.SpotField;
 import org.example.dto.SpotRequest;
 import org.example.dto.SpotResponse;
+import org.example.event.SpotChangedEvent;
+import org.example.exception.PreconditionFailedException;
 import org.example.model.Spot;
+import org.example.model.SpotTombstone;
 import org.example.repository.SpotRepository;
+import org.example.repository.SpotTombstoneRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +55,38 @@ class SpotServiceTest {
     @SuppressWarnings("unused")
     private SpotRepository spotRepository;
 
+    @Mock
+    @SuppressWarnings("unused")
+    private SpotGeoIndex spotGeoIndex;
+
+    @Mock
+    @SuppressWarnings("unused")
+    private SpotSearchIndex spotSearchIndex;
+
+    @Mock
+    private SpotClusterIndex spotClusterIndex;
+
+    @Mock
+    @SuppressWarnings("unused")
+    private SpotCache spotCache;
+
+    @Mock
+    private SpotChangeVersions changeVersions;
+
+    @Mock
+    private SpotTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private SpotGroupCommit groupCommit;
+
+    @Mock
+    @SuppressWarnings("unused")
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    @SuppressWarnings("unused")
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @Mock
     @SuppressWarnings("unused")
     private SecurityContext securityContext;
@@ -45,6 +103,12 @@ class SpotServiceTest {
         SecurityContextHolder.setContext(securityContext);
         org.mockito.Mockito.lenient().when(securityContext.getAuthentication()).thenReturn(authentication);
         org.mockito.Mockito.lenient().when(authentication.getName()).thenReturn("testuser");
+        // Behave like an always-missing read-through cache
+        org.mockito.Mockito.lenient().when(spotCache.get(any(), any())).thenAnswer(invocation ->
+                invocation.<Function<Long, SpotResponse>>getArgument(1).apply(invocation.getArgument(0)));
+        // Every write gets version 7
+        org.mockito.Mockito.lenient().when(changeVersions.write(anyInt(), any())).thenAnswer(invocation ->
+                invocation.<LongFunction<?>>getArgument(1).apply(7L));
     }
 
     @Test
@@ -75,11 +139,32 @@ class SpotServiceTest {
         assertEquals("Test Spot", response.getName());
         assertEquals("testuser", response.getCreatedBy());
         verify(spotRepository, times(1)).save(any(Spot.class));
+        verify(spotCache).put(response);
+        verify(eventPublisher).publishEvent(any(SpotChangedEvent.class));
+    }
+
+    @Test
+    void createSpot_WithGroupCommit_ShouldInsertThroughCommitter() {
+        when(groupCommit.isEnabled()).thenReturn(true);
+        when(groupCommit.insert(any(Spot.class))).thenAnswer(invocation -> {
+            Spot spot = invocation.getArgument(0);
+            spot.setId(5L);
+            spot.setChangeVersion(9L);
+            return spot;
+        });
+
+        SpotResponse response = spotService.createSpot(SpotRequest.builder().name("Burst").build());
+
+        assertEquals(5L, response.getId());
+        assertEquals("testuser", response.getCreatedBy());
+        verify(changeVersions, never()).write(anyInt(), any());
+        verify(spotRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(any(SpotChangedEvent.class));
     }
 
     @Test
     void getAllSpots_ShouldReturnListOfSpots() {
-        Spot spot1 = Spot.builder()
+        SpotResponse spot1 = SpotResponse.builder()
                 .id(1L)
                 .name("Spot 1")
                 .description("Description 1")
@@ -87,7 +172,7 @@ class SpotServiceTest {
                 .createdBy("user1")
                 .build();
 
-        Spot spot2 = Spot.builder()
+        SpotResponse spot2 = SpotResponse.builder()
                 .id(2L)
                 .name("Spot 2")
                 .description("Description 2")
@@ -95,7 +180,7 @@ class SpotServiceTest {
                 .createdBy("user2")
                 .build();
 
-        when(spotRepository.findAll()).thenReturn(Arrays.asList(spot1, spot2));
+        when(spotRepository.findAllResponses()).thenReturn(Arrays.asList(spot1, spot2));
 
         List<SpotResponse> spots = spotService.getAllSpots();
 
@@ -104,9 +189,53 @@ class SpotServiceTest {
         assertEquals("Spot 2", spots.get(1).getName());
     }
 
+    @Test
+    void getSpotsPage_ShouldReturnNextCursorWhenMoreRowsExist() {
+        SpotResponse spot3 = SpotResponse.builder().id(3L).name("Spot 3").build();
+        SpotResponse spot4 = SpotResponse.builder().id(4L).name("Spot 4").build();
+        SpotResponse spot5 = SpotResponse.builder().id(5L).name("Spot 5").build();
+
+        when(spotRepository.findPageAfter(2L, Limit.of(3)))
+                .thenReturn(Arrays.asList(spot3, spot4, spot5));
+
+        CursorPage<SpotResponse> page = spotService.getSpotsPage(2L, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("Spot 4", page.getItems().get(1).getName());
+        assertEquals(4L, page.getNextCursor());
+    }
+
+    @Test
+    void getSpotsPage_OnLastPage_ShouldReturnNoCursor() {
+        SpotResponse spot5 = SpotResponse.builder().id(5L).name("Spot 5").build();
+
+        when(spotRepository.findPageAfter(4L, Limit.of(3))).thenReturn(List.of(spot5));
+
+        CursorPage<SpotResponse> page = spotService.getSpotsPage(4L, 2);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void exportSpots_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        SpotResponse spot1 = SpotResponse.builder().id(1L).name("Spot 1").createdBy("user1").build();
+        SpotResponse spot2 = SpotResponse.builder().id(2L).name("Spot 2").createdBy("user2").build();
+
+        when(spotRepository.streamAll()).thenReturn(Stream.of(spot1, spot2));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        spotService.exportSpots(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Spot 1", objectMapper.readValue(lines[0], SpotResponse.class).getName());
+        assertEquals("Spot 2", objectMapper.readValue(lines[1], SpotResponse.class).getName());
+    }
+
     @Test
     void getSpotById_ShouldReturnSpot() {
-        Spot spot = Spot.builder()
+        SpotResponse spot = SpotResponse.builder()
                 .id(1L)
                 .name("Test Spot")
                 .description("Test Description")
@@ -114,7 +243,7 @@ class SpotServiceTest {
                 .createdBy("testuser")
                 .build();
 
-        when(spotRepository.findById(1L)).thenReturn(Optional.of(spot));
+        when(spotRepository.findResponseById(1L)).thenReturn(Optional.of(spot));
 
         SpotResponse response = spotService.getSpotById(1L);
 
@@ -125,62 +254,251 @@ class SpotServiceTest {
 
     @Test
     void getSpotById_WhenNotFound_ShouldThrowException() {
-        when(spotRepository.findById(1L)).thenReturn(Optional.empty());
+        when(spotRepository.findResponseById(1L)).thenReturn(Optional.empty());
 
         assertThrows(RuntimeException.class, () -> spotService.getSpotById(1L));
     }
 
     @Test
-    void updateSpot_ShouldReturnUpdatedSpot() {
-        Spot existingSpot = Spot.builder()
-                .id(1L)
-                .name("Old Name")
-                .description("Old Description")
-                .location("Old Location")
-                .createdBy("testuser")
-                .build();
+    void getSpotById_WithFields_ShouldProjectCachedSpot() {
+        SpotResponse spot = SpotResponse.builder().id(1L).name("Test Spot").description("Long text").build();
+        when(spotCache.getIfPresent(1L)).thenReturn(spot);
 
-        SpotRequest request = SpotRequest.builder()
-                .name("New Name")
-                .description("New Description")
-                .location("New Location")
-                .latitude(48.8566)
-                .longitude(2.3522)
-                .build();
+        Map<String, Object> response = spotService.getSpotById(1L, EnumSet.of(SpotField.ID, SpotField.NAME));
 
-        Spot updatedSpot = Spot.builder()
-                .id(1L)
+        assertEquals(Map.of("id", 1L, "name", "Test Spot"), response);
+        verifyNoInteractions(spotRepository);
+    }
+
+    @Test
+    void getSpotById_WithFields_ShouldQueryOnlyRequestedFieldsOnCacheMiss() {
+        Set<SpotField> fields = EnumSet.of(SpotField.ID, SpotField.LATITUDE, SpotField.LONGITUDE);
+        when(spotRepository.findFieldsById(fields, 1L))
+                .thenReturn(Optional.of(Map.of("id", 1L, "latitude", 48.85, "longitude", 2.35)));
+
+        Map<String, Object> response = spotService.getSpotById(1L, fields);
+
+        assertEquals(48.85, response.get("latitude"));
+        verify(spotCache, never()).put(any());
+    }
+
+    @Test
+    void getSpotsByCreator_ShouldCountOnlyWhenFirstPageIsFull() {
+        SpotResponse first = SpotResponse.builder().id(1L).createdBy("alice").build();
+        SpotResponse second = SpotResponse.builder().id(2L).createdBy("alice").build();
+        SpotResponse third = SpotResponse.builder().id(3L).createdBy("alice").build();
+        when(spotRepository.findByCreatedByAfter("alice", 0L, Limit.of(3))).thenReturn(List.of(first, second, third));
+        when(spotRepository.findByCreatedByAfter("alice", 2L, Limit.of(3))).thenReturn(List.of(third));
+        when(spotRepository.countByCreatedBy("alice")).thenReturn(3L);
+
+        CursorPage<SpotResponse> page = spotService.getSpotsByCreator("alice", null, 2);
+        CursorPage<SpotResponse> next = spotService.getSpotsByCreator("alice", 2L, 2);
+
+        assertEquals(List.of(first, second), page.getItems());
+        assertEquals(2L, page.getNextCursor());
+        assertEquals(3L, page.getTotal());
+        assertEquals(List.of(third), next.getItems());
+        assertNull(next.getNextCursor());
+        assertNull(next.getTotal());
+        verify(spotRepository, times(1)).countByCreatedBy("alice");
+    }
+
+    @Test
+    void getSpotsPage_WithFields_ShouldUseIdAsCursor() {
+        Set<SpotField> fields = SpotField.parse("name");
+        when(spotRepository.findFieldsPageAfter(fields, 0L, 3)).thenReturn(List.of(
+                Map.of("id", 1L, "name", "A"), Map.of("id", 2L, "name", "B"), Map.of("id", 3L, "name", "C")));
+
+        CursorPage<Map<String, Object>> page = spotService.getSpotsPage(null, 2, fields);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(2L, page.getNextCursor());
+    }
+
+    @Test
+    void parseFields_ShouldAlwaysIncludeIdAndRejectUnknownFields() {
+        assertEquals(EnumSet.of(SpotField.ID, SpotField.NAME, SpotField.CREATED_BY),
+                SpotField.parse("createdBy, name"));
+        assertThrows(IllegalArgumentException.class, () -> SpotField.parse("name,password"));
+    }
+
+    @Test
+    void updateSpot_WithIfMatchAndCachedSpot_ShouldOnlyRunConditionalUpdate() {
+        SpotRequest request = SpotRequest.builder()
                 .name("New Name")
                 .description("New Description")
                 .location("New Location")
                 .latitude(48.8566)
                 .longitude(2.3522)
-                .createdBy("testuser")
                 .build();
+        when(spotCache.getIfPresent(1L)).thenReturn(
+                SpotResponse.builder().id(1L).name("Old Name").createdBy("testuser").version(3L).build());
+        when(spotRepository.updateIfVersion(eq(1L), eq(3L), eq(request), eq(7L), any())).thenReturn(1);
 
-        when(spotRepository.findById(1L)).thenReturn(Optional.of(existingSpot));
-        when(spotRepository.save(any(Spot.class))).thenReturn(updatedSpot);
-
-        SpotResponse response = spotService.updateSpot(1L, request);
+        SpotResponse response = spotService.updateSpot(1L, request, 3L);
 
-        assertNotNull(response);
         assertEquals("New Name", response.getName());
         assertEquals("New Description", response.getDescription());
+        assertEquals("testuser", response.getCreatedBy());
+        assertEquals(4L, response.getVersion());
+        verify(spotRepository, never()).findById(any());
+        verify(spotRepository, never()).findResponseById(any());
+        verify(spotCache).invalidate(1L);
     }
 
     @Test
-    void deleteSpot_ShouldDeleteSpot() {
+    void updateSpot_WithoutIfMatch_ShouldReadBackCreatorAndVersion() {
+        SpotRequest request = SpotRequest.builder().name("New Name").build();
+        when(spotRepository.updateIfVersion(eq(1L), isNull(), eq(request), eq(7L), any())).thenReturn(1);
+        when(spotRepository.findResponseById(1L)).thenReturn(Optional.of(
+                SpotResponse.builder().id(1L).name("New Name").createdBy("testuser").version(5L).build()));
+
+        SpotResponse response = spotService.updateSpot(1L, request, null);
+
+        assertEquals("testuser", response.getCreatedBy());
+        assertEquals(5L, response.getVersion());
+    }
+
+    @Test
+    void updateSpot_WithStaleIfMatch_ShouldFailPrecondition() {
+        SpotRequest request = SpotRequest.builder().name("New Name").build();
+        when(spotRepository.updateIfVersion(eq(1L), eq(3L), eq(request), eq(7L), any())).thenReturn(0);
         when(spotRepository.existsById(1L)).thenReturn(true);
 
-        spotService.deleteSpot(1L);
+        assertThrows(PreconditionFailedException.class, () -> spotService.updateSpot(1L, request, 3L));
+        verify(spotCache, never()).invalidate(any());
+        verify(eventPublisher, never()).publishEvent(any(SpotChangedEvent.class));
+    }
+
+    @Test
+    void deleteSpot_ShouldDeleteSpot() {
+        when(spotRepository.deleteIfVersion(1L, 2L)).thenReturn(1);
 
-        verify(spotRepository, times(1)).deleteById(1L);
+        spotService.deleteSpot(1L, 2L);
+
+        verify(spotRepository, never()).findById(any());
+        verify(tombstoneRepository).upsert(eq(1L), eq(7L), any(Instant.class));
+        verify(spotCache).invalidate(1L);
+    }
+
+    @Test
+    void getChanges_ShouldMergeUpdatesAndDeletesByVersion() {
+        when(changeVersions.committedUpTo()).thenReturn(20L);
+        when(spotRepository.findChanged(10L, 20L, Limit.of(4))).thenReturn(List.of(
+                Spot.builder().id(1L).name("A").changeVersion(11L).build(),
+                Spot.builder().id(2L).name("B").changeVersion(14L).build()));
+        when(tombstoneRepository.findChanged(10L, 20L, Limit.of(4))).thenReturn(List.of(
+                SpotTombstone.builder().spotId(3L).changeVersion(12L).build(),
+                SpotTombstone.builder().spotId(4L).changeVersion(15L).build()));
+
+        SpotChanges changes = spotService.getChanges(10L, 3);
+
+        assertEquals(List.of(1L, 3L, 2L), changes.getChanges().stream().map(SpotChange::getId).toList());
+        assertEquals(SpotChange.Type.DELETE, changes.getChanges().get(1).getType());
+        assertNull(changes.getChanges().get(1).getSpot());
+        assertEquals(14L, changes.getVersion());
+        assertTrue(changes.isHasMore());
+    }
+
+    @Test
+    void getChanges_WhenCaughtUp_ShouldReturnCommittedVersion() {
+        when(changeVersions.committedUpTo()).thenReturn(20L);
+        when(spotRepository.findChanged(10L, 20L, Limit.of(51))).thenReturn(List.of(
+                Spot.builder().id(1L).name("A").changeVersion(11L).build()));
+        when(tombstoneRepository.findChanged(10L, 20L, Limit.of(51))).thenReturn(List.of());
+
+        SpotChanges changes = spotService.getChanges(10L, 50);
+
+        assertEquals(1, changes.getChanges().size());
+        assertEquals(20L, changes.getVersion());
+        assertFalse(changes.isHasMore());
+        assertEquals(SpotChanges.builder().changes(List.of()).version(20L).build(), spotService.getChanges(20L, 50));
     }
 
     @Test
     void deleteSpot_WhenNotFound_ShouldThrowException() {
-        when(spotRepository.existsById(1L)).thenReturn(false);
+        when(spotRepository.deleteIfVersion(1L, null)).thenReturn(0);
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> spotService.deleteSpot(1L, null));
+
+        assertFalse(ex instanceof PreconditionFailedException);
+        verify(tombstoneRepository, never()).save(any());
+    }
+
+    @Test
+    void getNearbySpots_ShouldKeepIndexOrder() {
+        SpotResponse near = SpotResponse.builder().id(2L).name("Near").latitude(48.857).longitude(2.352).build();
+        SpotResponse far = SpotResponse.builder().id(1L).name("Far").latitude(48.9).longitude(2.4).build();
 
-        assertThrows(RuntimeException.class, () -> spotService.deleteSpot(1L));
+        when(spotGeoIndex.nearby(48.8566, 2.3522, 10, 5)).thenReturn(List.of(2L, 1L));
+        when(spotRepository.findResponsesByIdIn(List.of(2L, 1L))).thenReturn(Arrays.asList(far, near));
+
+        List<SpotResponse> spots = spotService.getNearbySpots(48.8566, 2.3522, 10, 5);
+
+        assertEquals(2, spots.size());
+        assertEquals("Near", spots.get(0).getName());
+        assertEquals("Far", spots.get(1).getName());
+    }
+
+    @Test
+    void getNearbySpots_WithInvalidRadius_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> spotService.getNearbySpots(48.8566, 2.3522, 0, 5));
+    }
+
+    @Test
+    void searchSpots_ShouldKeepRelevanceOrder() {
+        SpotResponse best = SpotResponse.builder().id(7L).name("Bowl de Marseille").build();
+        SpotResponse other = SpotResponse.builder().id(3L).name("Street Marseille").build();
+
+        when(spotSearchIndex.search("bowl", 10)).thenReturn(List.of(7L, 3L));
+        when(spotRepository.findResponsesByIdIn(List.of(7L, 3L))).thenReturn(Arrays.asList(other, best));
+
+        List<SpotResponse> spots = spotService.searchSpots("bowl", 10);
+
+        assertEquals(List.of(7L, 3L), spots.stream().map(SpotResponse::getId).toList());
+    }
+
+    @Test
+    void searchSpots_WithBlankQuery_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> spotService.searchSpots(" ", 10));
+    }
+
+    @Test
+    void getClusters_ShouldDelegateToClusterIndex() {
+        List<SpotCluster> clusters = List.of(SpotCluster.builder().latitude(48.85).longitude(2.35).count(3).build());
+        when(spotClusterIndex.clusters(41, -5, 51, 10, 5, false)).thenReturn(clusters);
+
+        assertEquals(clusters, spotService.getClusters(41, -5, 51, 10, 5, false));
+    }
+
+    @Test
+    void getClusters_WithInvalidBoundingBox_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> spotService.getClusters(51, -5, 41, 10, 5, false));
+        assertThrows(IllegalArgumentException.class, () -> spotService.getClusters(41, -5, 51, 200, 5, false));
+        assertThrows(IllegalArgumentException.class, () -> spotService.getClusters(41, -5, 51, 10, 30, false));
+    }
+
+    @Test
+    void getSpotsWithin_ShouldUseRangeQuery() {
+        SpotResponse spot = SpotResponse.builder().id(1L).name("Paris").latitude(48.85).longitude(2.35).build();
+        when(spotRepository.findWithin(48, 2, 49, 3, Limit.of(50))).thenReturn(List.of(spot));
+
+        List<SpotResponse> spots = spotService.getSpotsWithin(48, 2, 49, 3, 50);
+
+        assertEquals(List.of(1L), spots.stream().map(SpotResponse::getId).toList());
+    }
+
+    @Test
+    void getSpotsWithin_AcrossAntimeridian_ShouldSplitLongitudeRange() {
+        when(spotRepository.findWithinAcrossAntimeridian(-20, 170, -10, -170, Limit.of(50))).thenReturn(List.of());
+
+        assertTrue(spotService.getSpotsWithin(-20, 170, -10, -170, 50).isEmpty());
+        verify(spotRepository, never()).findWithin(anyDouble(), anyDouble(), anyDouble(), anyDouble(), any());
+    }
+
+    @Test
+    void getSpotsWithin_WithInvalidLimit_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> spotService.getSpotsWithin(48, 2, 49, 3, 0));
+        assertThrows(IllegalArgumentException.class, () -> spotService.getSpotsWithin(48, 2, 49, 3, 5000));
     }
 }
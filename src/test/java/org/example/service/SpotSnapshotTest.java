@@ -0,0 +1,72 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dto.SpotResponse;
+import org.example.event.SpotChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SpotSnapshotTest {
+
+    private final SpotService spotService = mock(SpotService.class);
+    private SpotSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new SpotSnapshot(spotService, new ObjectMapper(), Duration.ofMillis(50), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        snapshot.close();
+    }
+
+    @Test
+    void current_ShouldHoldJsonAndGzipOfTheSameContent() throws IOException {
+        when(spotService.getAllSpots()).thenReturn(List.of(SpotResponse.builder().id(1L).name("A").build()));
+
+        SpotSnapshot.Snapshot current = snapshot.current();
+
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(current.gzip()))) {
+            assertArrayEquals(current.json(), in.readAllBytes());
+        }
+        assertNotEquals(current.etag(false), current.etag(true));
+        assertSame(current, snapshot.current());
+    }
+
+    @Test
+    void onSpotChanged_ShouldCoalesceChangesIntoOneBackgroundRebuild() {
+        SpotResponse first = SpotResponse.builder().id(1L).name("A").build();
+        SpotResponse second = SpotResponse.builder().id(2L).name("B").build();
+        when(spotService.getAllSpots()).thenReturn(List.of(first), List.of(first, second));
+        String before = snapshot.current().etag(false);
+
+        snapshot.onSpotChanged(SpotChangedEvent.created(second, 1L, Instant.now()));
+        snapshot.onSpotChanged(SpotChangedEvent.updated(second, 2L, Instant.now()));
+
+        await(() -> !snapshot.current().etag(false).equals(before));
+        verify(spotService, times(2)).getAllSpots();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dto.SpotResponse;
+import org.example.event.SpotChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SpotStreamTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Counter dropped = meterRegistry.counter("dropped");
+    private final Counter disconnected = meterRegistry.counter("disconnected");
+    // Runs the drain only when the test says so, to fill the queue first
+    private final Queue<Runnable> senders = new ArrayDeque<>();
+    private final RecordingEmitter emitter = new RecordingEmitter();
+    private final SpotChangeVersions changeVersions = mock(SpotChangeVersions.class);
+
+    @Test
+    void offer_WhenQueueIsFull_ShouldDropOldestAndAnnounceResync() {
+        SpotStream.Subscriber subscriber = subscriber(SpotStream.OverflowPolicy.DROP);
+
+        subscriber.offer(message(5));
+        subscriber.offer(message(7));
+        subscriber.offer(message(6));
+        senders.forEach(Runnable::run);
+
+        assertEquals(List.of("resync:{\"version\":4}", "spot:7", "spot:6"), emitter.sent);
+        assertEquals(1, dropped.count());
+    }
+
+    @Test
+    void offer_WhenQueueIsFull_ShouldDisconnectWithDisconnectPolicy() {
+        SpotStream.Subscriber subscriber = subscriber(SpotStream.OverflowPolicy.DISCONNECT);
+
+        subscriber.offer(message(5));
+        subscriber.offer(message(6));
+        subscriber.offer(message(7));
+        senders.forEach(Runnable::run);
+
+        assertTrue(emitter.completed);
+        assertTrue(emitter.sent.isEmpty());
+        assertEquals(1, disconnected.count());
+    }
+
+    @Test
+    void subscribe_ShouldDeliverWriteCommittedWhileReadyIsBuilt() {
+        AtomicBoolean written = new AtomicBoolean();
+        try (SpotStream stream = stream()) {
+            // Version 8 commits and is published right after the ready version is read
+            when(changeVersions.committedUpTo()).thenAnswer(invocation -> {
+                if (written.compareAndSet(false, true)) {
+                    stream.onSpotChanged(created(8));
+                    return 7L;
+                }
+                return 8L;
+            });
+
+            stream.subscribe(emitter);
+
+            awaitSent(2);
+            assertEquals("ready:{\"version\":7}", emitter.sent.get(0));
+            assertTrue(emitter.sent.get(1).contains("\"version\":8"));
+        }
+    }
+
+    @Test
+    void subscribe_ShouldReplayChangeDispatchedAboveReadyWhileOlderWriteIsInFlight() {
+        // 11 is still in flight when 12 commits: committed versions stop at 10 until 11 commits
+        when(changeVersions.committedUpTo()).thenReturn(10L);
+        try (SpotStream stream = stream()) {
+            stream.onSpotChanged(created(12));
+            stream.subscribe(emitter);
+            stream.onSpotChanged(created(11));
+
+            awaitSent(3);
+            assertEquals("ready:{\"version\":10}", emitter.sent.get(0));
+            assertTrue(emitter.sent.get(1).contains("\"version\":12"));
+            assertTrue(emitter.sent.get(2).contains("\"version\":11"));
+        }
+    }
+
+    private SpotStream stream() {
+        return new SpotStream(new ObjectMapper().registerModule(new JavaTimeModule()),
+                changeVersions, 16, 10, SpotStream.OverflowPolicy.DROP, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    private static SpotChangedEvent created(long version) {
+        return SpotChangedEvent.created(SpotResponse.builder().id(3L).build(), version, Instant.now());
+    }
+
+    private void awaitSent(int events) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (emitter.sent.size() < events) {
+            assertTrue(System.nanoTime() < deadline, "change not delivered");
+            Thread.onSpinWait();
+        }
+    }
+
+    private SpotStream.Subscriber subscriber(SpotStream.OverflowPolicy policy) {
+        return new SpotStream.Subscriber(emitter, 2, policy, senders::add,
+                (name, data) -> SseEmitter.event().name(name).data(data.toString()
+                        .replace("{version=", "{\"version\":"), MediaType.APPLICATION_JSON).build(),
+                dropped, disconnected);
+    }
+
+    private static SpotStream.Message message(long version) {
+        return new SpotStream.Message(SseEmitter.event().name("spot").data(String.valueOf(version)).build(), version);
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private volatile boolean completed;
+
+        // Keeps "name:data" of each event
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            String frame = items.stream().map(item -> item.getData().toString()).collect(Collectors.joining());
+            sent.add(frame.replaceAll("(?s)event:(\\w+)\ndata:(.*?)\n\n", "$1:$2"));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
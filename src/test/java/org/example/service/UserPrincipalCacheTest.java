@@ -0,0 +1,57 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.model.Role;
+import org.example.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPrincipalCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserPrincipalCache cache = new UserPrincipalCache(100, Duration.ofMinutes(5), meterRegistry);
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<String, UserDetails> loader = username -> {
+        loads.incrementAndGet();
+        if (username.equals("ghost")) {
+            throw new UsernameNotFoundException("User not found");
+        }
+        return User.builder().username(username).password("pw").role(Role.USER).build();
+    };
+
+    @Test
+    void get_ShouldLoadOnceThenHit() {
+        cache.get("user1", loader);
+        cache.get("user1", loader);
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "principals").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void evict_ShouldForceReload() {
+        cache.get("user1", loader);
+        cache.evict("user1");
+        cache.get("user1", loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_WhenUserMissing_ShouldNotCacheFailure() {
+        assertThrows(UsernameNotFoundException.class, () -> cache.get("ghost", loader));
+        assertThrows(UsernameNotFoundException.class, () -> cache.get("ghost", loader));
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -30,6 +30,10 @@ class UserServiceTest {
     @SuppressWarnings("unused")
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    @SuppressWarnings("unused")
+    private UserPrincipalCache principalCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -68,14 +72,14 @@ class UserServiceTest {
 
     @Test
     void getUserById_ShouldReturnUser() {
-        User user = User.builder()
+        UserResponse user = UserResponse.builder()
                 .id(1L)
                 .username("user1")
                 .email("u1@example.com")
-                .role(Role.USER)
+                .role("USER")
                 .build();
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.findResponseById(1L)).thenReturn(Optional.of(user));
 
         UserResponse response = userService.getUserById(1L);
 
@@ -83,5 +87,44 @@ class UserServiceTest {
         assertEquals(1L, response.getId());
         assertEquals("user1", response.getUsername());
     }
-}
 
+    @Test
+    void updateUser_ShouldEvictCachedPrincipal() {
+        User user = User.builder()
+                .id(1L)
+                .username("user1")
+                .email("u1@example.com")
+                .password("encoded")
+                .role(Role.USER)
+                .build();
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UserResponse response = userService.updateUser(1L, UserRequest.builder().username("renamed").role("ADMIN").build());
+
+        assertEquals("renamed", response.getUsername());
+        assertEquals("ADMIN", response.getRole());
+        verify(principalCache).evict("user1");
+    }
+
+    @Test
+    void deleteUser_ShouldEvictCachedPrincipal() {
+        User user = User.builder().id(1L).username("user1").role(Role.USER).build();
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userService.deleteUser(1L);
+
+        verify(userRepository).delete(user);
+        verify(principalCache).evict("user1");
+    }
+
+    @Test
+    void deleteUser_WhenNotFound_ShouldThrowException() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> userService.deleteUser(1L));
+        verify(principalCache, never()).evict(any());
+    }
+}
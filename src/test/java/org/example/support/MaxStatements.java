@@ -0,0 +1,20 @@
+package org.example.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the test when its body makes Hibernate prepare more than {@link #value()} SQL statements on the
+ * test thread. {@code @BeforeEach} methods are not counted, so fixtures can be inserted there.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(StatementCountExtension.class)
+public @interface MaxStatements {
+
+    int value();
+}
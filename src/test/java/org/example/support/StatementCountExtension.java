@@ -0,0 +1,44 @@
+package org.example.support;
+
+import org.example.config.StatementCounter;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.opentest4j.AssertionFailedError;
+
+/**
+ * Enforces {@link MaxStatements}, and offers {@link #assertMaxStatements(int, Executable)} for tests that need
+ * a budget per step (e.g. a cache miss followed by a hit).
+ */
+public class StatementCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(StatementCountExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), StatementCounter.count());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        long before = context.getStore(NAMESPACE).remove(context.getUniqueId(), long.class);
+        AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), MaxStatements.class)
+                .ifPresent(max -> check(max.value(), StatementCounter.count() - before));
+    }
+
+    public static void assertMaxStatements(int max, Executable executable) throws Throwable {
+        long before = StatementCounter.count();
+        executable.execute();
+        check(max, StatementCounter.count() - before);
+    }
+
+    private static void check(int max, long actual) {
+        if (actual > max) {
+            throw new AssertionFailedError("Expected at most " + max + " SQL statements but " + actual
+                    + " were executed", max, actual);
+        }
+    }
+}